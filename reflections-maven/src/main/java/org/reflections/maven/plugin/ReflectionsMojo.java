@@ -62,6 +62,8 @@ import static org.reflections.util.Utils.isEmpty;
  * <li>{@link org.reflections.maven.plugin.ReflectionsMojo#parallel} - indicates whether to use parallel scanning of classes, using j.u.c FixedThreadPool,
  * defaults to false
  * <li>{@link org.reflections.maven.plugin.ReflectionsMojo#tests} - If set to true, the mojo will generate the metadata for the test classes as well
+ * </ul>
+ * <p>the saved metadata can be collected at runtime instead of scanning the module, using {@link org.reflections.util.ConfigurationBuilder#useSavedIndexes()}
  * */
 @MojoGoal("reflections")
 @MojoPhase("process-classes")
@@ -0,0 +1,387 @@
+package org.reflections;
+
+import com.google.common.base.Function;
+import com.google.common.base.Predicate;
+import com.google.common.base.Predicates;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.reflections.vfs.DirPool;
+import org.reflections.vfs.Fingerprint;
+import org.reflections.vfs.MappedZipDir;
+import org.reflections.vfs.Vfs;
+
+import javax.annotation.Nullable;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.reflections.Reflections.log;
+
+/**
+ * an incremental scan, rescanning only the files changed since the state of the previous scan was saved
+ * <p>the state holds, for each url, the fingerprint of its archive if any, and for each of its files the fingerprint of the file
+ * along with the writes its scanning made into the {@link Store}. the writes of files whose fingerprint did not change are replayed
+ * into the store, the files added or changed are scanned while the store records their writes, and files removed are left out.
+ * an archive whose fingerprint did not change is not even enumerated.
+ * <p>the state is saved into a binary file, its strings written once and referred to by index thereafter.
+ * <p>the state of each archive might be cached as well, in a file of its own in a cache directory, keyed by the identity of the archive
+ * and the signature of the scan. an archive whose cache file is found is restored from it, as if it were found unchanged in the state.
+ * either the state file or the cache directory might be null, directories are scanned as usual when there is no state file
+ */
+class IncrementalScan {
+    private static final int MAGIC = 0x52464c53;
+    private static final int VERSION = 1;
+
+    @Nullable private final File stateFile;
+    @Nullable private final File cacheDir;
+    private final String signature;
+    private final Store store;
+    private final Map<String, UrlState> previous;
+    private final Map<String, UrlState> next = Maps.newLinkedHashMap();
+    private final Map<URL, Set<String>> changedNames = Maps.newHashMap();
+    private final Map<String, Pending> pending = Maps.newHashMap(); //by full path of the changed files
+    private final Map<String, File> cacheMisses = Maps.newLinkedHashMap(); //the cache files to be saved, by url
+    private final Set<URL> fullScans = Sets.newHashSet(); //the urls scanned as usual, with nothing to save them into
+    private Function<URL, Predicate<String>> inputsFilters;
+    private int replayed;
+    private int cached;
+
+    /** an incremental scan into the given recording store, from the state saved in the given file with the same signature, if any,
+     * and from the cache files of archives in the given directory, if any */
+    IncrementalScan(@Nullable final File stateFile, @Nullable final File cacheDir, final String signature, final Store store) {
+        this.stateFile = stateFile;
+        this.cacheDir = cacheDir;
+        this.signature = signature;
+        this.store = store;
+        this.previous = stateFile != null ? load(stateFile, signature) : Maps.<String, UrlState>newHashMap();
+    }
+
+    /** replays the writes of the unchanged files of the given urls, and returns the urls with files to be scanned */
+    Set<URL> prepare(final Collection<URL> urls, final DirPool dirPool, final Function<URL, Predicate<String>> inputsFilters) {
+        this.inputsFilters = inputsFilters;
+        Set<URL> result = Sets.newLinkedHashSet();
+
+        for (URL url : urls) {
+            String key = url.toExternalForm();
+            UrlState old = previous.get(key);
+            Fingerprint fingerprint = getFingerprint(url);
+
+            if (old != null && fingerprint != null && fingerprint.equals(old.fingerprint)) {
+                replay(key, old);
+                continue;
+            }
+
+            File cacheFile = cacheDir != null && fingerprint != null ? getCacheFile(url) : null;
+            if (cacheFile != null) {
+                UrlState cachedState = cacheFile.isFile() ? load(cacheFile, signature).get(key) : null;
+                if (cachedState != null && fingerprint.equals(cachedState.fingerprint)) {
+                    replay(key, cachedState);
+                    cached++;
+                    continue;
+                }
+                cacheMisses.put(key, cacheFile);
+            } else if (stateFile == null) {
+                fullScans.add(url);
+                result.add(url);
+                continue;
+            }
+
+            UrlState state = new UrlState(fingerprint);
+            Set<String> names = Sets.newHashSet();
+            Vfs.Dir dir = null;
+            try {
+                dir = dirPool.acquire(url);
+                for (Vfs.File file : Vfs.getFiles(dir, inputsFilters.apply(url))) {
+                    String relativePath = file.getRelativePath();
+                    Fingerprint entryFingerprint = Fingerprint.of(file);
+                    EntryState entry = old != null ? old.entries.get(relativePath) : null;
+
+                    if (entry != null && entryFingerprint != null && entryFingerprint.equals(entry.fingerprint)) {
+                        store.replay(entry.writes);
+                        state.entries.put(relativePath, entry);
+                        replayed++;
+                    } else {
+                        names.add(relativePath.replace('/', '.'));
+                        pending.put(file.getFullPath(), new Pending(state, relativePath, entryFingerprint));
+                    }
+                }
+            } catch (ReflectionsException e) {
+                if (log != null) log.error("could not create Vfs.Dir from url. ignoring the exception and continuing", e);
+                continue;
+            } finally {
+                if (dir != null) dirPool.release(dir);
+            }
+
+            next.put(key, state);
+            if (!names.isEmpty()) {
+                changedNames.put(url, names);
+                result.add(url);
+            }
+        }
+
+        if (log != null) log.info(String.format("Reflections restored %d unchanged files, %d of %d urls from the cache, %d files to be scanned",
+                replayed, cached, urls.size(), pending.size()));
+        return result;
+    }
+
+    /** the filter of the files of the given url to be scanned, those added or changed */
+    Predicate<String> getInputsFilter(final URL url) {
+        if (fullScans.contains(url)) return inputsFilters.apply(url);
+        Set<String> names = changedNames.get(url);
+        return names != null ? Predicates.in(names) : Predicates.<String>alwaysFalse();
+    }
+
+    /** records the writes of the given file, scanned while the store was recording */
+    void scanned(final Vfs.File file, final List<String> writes) {
+        Pending entry = pending.get(file.getFullPath());
+        if (entry != null) {
+            entry.state.entries.put(entry.relativePath, new EntryState(entry.fingerprint, writes));
+        }
+    }
+
+    /** saves the state of this scan, replacing the previous one, and the cache files of the archives not found in the cache */
+    void save() {
+        if (stateFile != null) save(stateFile, next);
+        for (Map.Entry<String, File> cacheMiss : cacheMisses.entrySet()) {
+            UrlState state = next.get(cacheMiss.getKey());
+            if (state != null) save(cacheMiss.getValue(), Collections.singletonMap(cacheMiss.getKey(), state));
+        }
+    }
+
+    //
+    private void replay(final String key, final UrlState state) {
+        for (EntryState entry : state.entries.values()) {
+            store.replay(entry.writes);
+        }
+        replayed += state.entries.size();
+        next.put(key, state);
+    }
+
+    /** saves the given states into the given file, replacing it */
+    private void save(final File file, final Map<String, UrlState> states) {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null) parent.mkdirs();
+        File temp = new File(file.getPath() + ".tmp");
+
+        DataOutputStream out = null;
+        try {
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp), 64 * 1024));
+            StringWriter strings = new StringWriter(out);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            strings.write(signature);
+
+            out.writeInt(states.size());
+            for (Map.Entry<String, UrlState> url : states.entrySet()) {
+                strings.write(url.getKey());
+                writeFingerprint(out, url.getValue().fingerprint);
+
+                out.writeInt(url.getValue().entries.size());
+                for (Map.Entry<String, EntryState> entry : url.getValue().entries.entrySet()) {
+                    strings.write(entry.getKey());
+                    writeFingerprint(out, entry.getValue().fingerprint);
+                    out.writeInt(entry.getValue().writes.size());
+                    for (String s : entry.getValue().writes) {
+                        strings.write(s);
+                    }
+                }
+            }
+            out.close();
+            out = null;
+
+            if (!temp.renameTo(file) && !(file.delete() && temp.renameTo(file))) {
+                throw new IOException("could not rename " + temp + " to " + file);
+            }
+        } catch (IOException e) {
+            if (log != null) log.warn("could not save incremental scan state " + file, e);
+        } finally {
+            if (out != null) {
+                try { out.close(); } catch (IOException e) { /*ignore*/ }
+                temp.delete();
+            }
+        }
+    }
+
+    /** the fingerprint of the archive of the given url, or null if it is not an archive, in which case its files are compared one by one */
+    @Nullable private static Fingerprint getFingerprint(final URL url) {
+        String externalForm = url.toExternalForm();
+        if (!externalForm.startsWith("file:") && !externalForm.startsWith("jar:file:")) return null;
+
+        String path = Vfs.normalizePath(url);
+        int nested = path.indexOf("!/");
+        return Fingerprint.of(new File(nested != -1 ? path.substring(0, nested) : path));
+    }
+
+    /** the cache file of the archive of the given url, named by a digest of the url, the size, modification time and central directory
+     * of the archive, and the signature of the scan. or null if the archive could not be read */
+    @Nullable private File getCacheFile(final URL url) {
+        String path = Vfs.normalizePath(url);
+        int nested = path.indexOf("!/");
+        File archive = new File(nested != -1 ? path.substring(0, nested) : path);
+
+        MappedZipDir dir = null;
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            digest.update((signature + "\n" + url.toExternalForm() + "\n" + archive.length() + "\n" + archive.lastModified() + "\n").getBytes("UTF-8"));
+            dir = new MappedZipDir(archive.toURI().toURL());
+            dir.digest(digest);
+
+            StringBuilder name = new StringBuilder();
+            for (byte b : digest.digest()) {
+                name.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return new File(cacheDir, name.append(".idx").toString());
+        } catch (NoSuchAlgorithmException e) {
+            throw new ReflectionsException("could not digest " + archive, e);
+        } catch (IOException e) {
+            if (log != null) log.warn("could not read archive " + archive + " to be cached. scanning it instead", e);
+            return null;
+        } catch (ReflectionsException e) {
+            if (log != null) log.warn("could not read archive " + archive + " to be cached. scanning it instead", e);
+            return null;
+        } finally {
+            if (dir != null) dir.close();
+        }
+    }
+
+    private static Map<String, UrlState> load(final File stateFile, final String signature) {
+        Map<String, UrlState> result = Maps.newHashMap();
+        if (!stateFile.isFile()) return result;
+
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(stateFile), 64 * 1024));
+            StringReader strings = new StringReader(in);
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || !signature.equals(strings.read())) {
+                if (log != null) log.info("incremental scan state " + stateFile + " does not match the configuration, scanning all files");
+                return result;
+            }
+
+            for (int urls = in.readInt(); urls > 0; urls--) {
+                String url = strings.read();
+                UrlState state = new UrlState(readFingerprint(in));
+                for (int entries = in.readInt(); entries > 0; entries--) {
+                    String relativePath = strings.read();
+                    Fingerprint fingerprint = readFingerprint(in);
+                    int size = in.readInt();
+                    List<String> writes = Lists.newArrayListWithCapacity(size);
+                    for (int i = 0; i < size; i++) {
+                        writes.add(strings.read());
+                    }
+                    state.entries.put(relativePath, new EntryState(fingerprint, writes));
+                }
+                result.put(url, state);
+            }
+            return result;
+        } catch (IOException e) {
+            if (log != null) log.warn("could not load incremental scan state " + stateFile + ", scanning all files", e);
+            return Maps.newHashMap();
+        } finally {
+            if (in != null) {
+                try { in.close(); } catch (IOException e) { /*ignore*/ }
+            }
+        }
+    }
+
+    private static void writeFingerprint(final DataOutputStream out, @Nullable final Fingerprint fingerprint) throws IOException {
+        out.writeBoolean(fingerprint != null);
+        if (fingerprint != null) {
+            out.writeLong(fingerprint.getSize());
+            out.writeLong(fingerprint.getStamp());
+        }
+    }
+
+    @Nullable private static Fingerprint readFingerprint(final DataInputStream in) throws IOException {
+        return in.readBoolean() ? new Fingerprint(in.readLong(), in.readLong()) : null;
+    }
+
+    /** writes each string once, as its index followed by its utf-8 bytes, and by its index alone thereafter */
+    private static class StringWriter {
+        private final DataOutputStream out;
+        private final Map<String, Integer> indexes = Maps.newHashMap();
+
+        StringWriter(final DataOutputStream out) {
+            this.out = out;
+        }
+
+        void write(final String s) throws IOException {
+            Integer index = indexes.get(s);
+            if (index != null) {
+                out.writeInt(index);
+            } else {
+                out.writeInt(indexes.size());
+                indexes.put(s, indexes.size());
+                byte[] bytes = s.getBytes("UTF-8");
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+        }
+    }
+
+    private static class StringReader {
+        private final DataInputStream in;
+        private final List<String> strings = Lists.newArrayList();
+
+        StringReader(final DataInputStream in) {
+            this.in = in;
+        }
+
+        String read() throws IOException {
+            int index = in.readInt();
+            if (index < strings.size()) return strings.get(index);
+            if (index != strings.size()) throw new IOException("invalid string index " + index);
+
+            byte[] bytes = new byte[in.readInt()];
+            in.readFully(bytes);
+            String s = new String(bytes, "UTF-8");
+            strings.add(s);
+            return s;
+        }
+    }
+
+    private static class UrlState {
+        @Nullable final Fingerprint fingerprint;
+        final Map<String, EntryState> entries = Maps.newConcurrentMap(); //written by the scanning workers, without locking
+
+        UrlState(@Nullable final Fingerprint fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+    }
+
+    private static class EntryState {
+        @Nullable final Fingerprint fingerprint;
+        final List<String> writes;
+
+        EntryState(@Nullable final Fingerprint fingerprint, final List<String> writes) {
+            this.fingerprint = fingerprint;
+            this.writes = writes;
+        }
+    }
+
+    /** a file to be scanned, and the state of its url to record it into */
+    private static class Pending {
+        final UrlState state;
+        final String relativePath;
+        @Nullable final Fingerprint fingerprint;
+
+        Pending(final UrlState state, final String relativePath, @Nullable final Fingerprint fingerprint) {
+            this.state = state;
+            this.relativePath = relativePath;
+            this.fingerprint = fingerprint;
+        }
+    }
+}
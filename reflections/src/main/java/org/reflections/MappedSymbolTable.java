@@ -0,0 +1,77 @@
+package org.reflections;
+
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * a read only {@link SymbolTable} read in place from the binary format of {@link Store#writeBinary(java.io.OutputStream)}
+ * <p>names are decoded from their utf-8 bytes when asked for, and found by their hash in the table of ids saved along with them,
+ * comparing their bytes, so that nothing is read before it is queried
+ */
+class MappedSymbolTable extends SymbolTable {
+    private final ByteBuffer names; //the utf-8 bytes of all names
+    private final IntBuffer nameOffsets; //by id, the offset of its name, and the end of the last one
+    private final IntBuffer slots; //ids + 1 by hash, 0 if empty
+
+    MappedSymbolTable(final ByteBuffer names, final IntBuffer nameOffsets, final IntBuffer slots) {
+        super(0);
+        this.names = names;
+        this.nameOffsets = nameOffsets;
+        this.slots = slots;
+    }
+
+    @Override int intern(final String name) {
+        int id = id(name);
+        if (id == -1) throw new UnsupportedOperationException("read only symbol table, could not add " + name);
+        return id;
+    }
+
+    @Override int id(final Object name) {
+        if (!(name instanceof String)) return -1;
+        byte[] bytes = utf8((String) name);
+        int mask = slots.limit() - 1;
+        for (int slot = hash(name.hashCode()) & mask; ; slot = (slot + 1) & mask) {
+            int id = slots.get(slot) - 1;
+            if (id == -1 || equalBytes(id, bytes)) return id;
+        }
+    }
+
+    @Override String name(final int id) {
+        int offset = nameOffsets.get(id);
+        byte[] bytes = new byte[nameOffsets.get(id + 1) - offset];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = names.get(offset + i);
+        }
+        try {
+            return new String(bytes, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new ReflectionsException("could not decode name " + id, e);
+        }
+    }
+
+    @Override int size() {
+        return nameOffsets.limit() - 1;
+    }
+
+    @Override void trim() {
+    }
+
+    //
+    private boolean equalBytes(final int id, final byte[] bytes) {
+        int offset = nameOffsets.get(id);
+        if (nameOffsets.get(id + 1) - offset != bytes.length) return false;
+        for (int i = 0; i < bytes.length; i++) {
+            if (names.get(offset + i) != bytes[i]) return false;
+        }
+        return true;
+    }
+
+    static byte[] utf8(final String name) {
+        try {
+            return name.getBytes("UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new ReflectionsException("could not encode name " + name, e);
+        }
+    }
+}
@@ -1,9 +1,15 @@
 package org.reflections;
 
+import com.google.common.base.Function;
 import com.google.common.base.Predicate;
+import com.google.common.base.Predicates;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
-import com.google.common.collect.Sets;
+import com.google.common.collect.Multimap;
+import com.google.common.collect.Sets;
+import org.reflections.adapters.ConstantPoolFilter;
+import org.reflections.adapters.MetadataAdapter;
+import org.reflections.adapters.PartialMetadataAdapter;
 import org.reflections.scanners.*;
 import org.reflections.serializers.Serializer;
 import org.reflections.serializers.XmlSerializer;
@@ -11,6 +17,9 @@ import org.reflections.util.ClasspathHelper;
 import org.reflections.util.ConfigurationBuilder;
 import org.reflections.util.FilterBuilder;
 import org.reflections.util.Utils;
+import org.reflections.vfs.BufferedFile;
+import org.reflections.vfs.DirPool;
+import org.reflections.vfs.ReadBuffer;
 import org.reflections.vfs.Vfs;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -22,10 +31,13 @@ import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.net.URL;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Future;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.regex.Pattern;
 
@@ -84,6 +96,7 @@ public class Reflections extends ReflectionUtils {
     }
 
     protected final transient Configuration configuration;
+    @Nullable private final transient ScanSession session;
     private Store store;
 
     /**
@@ -91,8 +104,14 @@ public class Reflections extends ReflectionUtils {
      * <p>it is preferred to use {@link org.reflections.util.ConfigurationBuilder}
      */
     public Reflections(final Configuration configuration) {
+        this(configuration, null);
+    }
+
+    /** constructs a Reflections instance and scan according to given {@link Configuration}, within the given {@link ScanSession} */
+    Reflections(final Configuration configuration, @Nullable final ScanSession session) {
         this.configuration = configuration;
-        store = new Store();
+        this.session = session;
+        store = new Store(getExecutorService() != null, getStateFile() != null || getCacheDir() != null);
 
         if (configuration.getScanners() != null && !configuration.getScanners().isEmpty()) {
             //inject to scanners
@@ -184,7 +203,9 @@ public class Reflections extends ReflectionUtils {
 
     //used for serialization
     protected Reflections() {
-        configuration = null;
+        configuration = new ConfigurationBuilder();
+        session = null;
+        store = new Store();
     }
 
     //
@@ -192,83 +213,366 @@ public class Reflections extends ReflectionUtils {
         if (configuration.getUrls() == null || configuration.getUrls().isEmpty()) {
             if (log != null) log.error("given scan urls are empty. set urls in the configuration");
             return;
-        } else {
-            if (log != null && log.isDebugEnabled()) {
-                StringBuilder urls = new StringBuilder();
-                for (URL url : configuration.getUrls()) {
-                    urls.append("\t").append(url.toExternalForm()).append("\n");
-                }
-                log.debug("going to scan these urls:\n" + urls);
+        }
+
+        //urls of the same file are scanned once, and directories nested in others are left out of them
+        Set<URL> urls = ClasspathHelper.canonicalUrls(configuration.getUrls());
+        final Multimap<URL, String> nestedPaths = ClasspathHelper.nestedPaths(urls);
+
+        if (log != null && log.isDebugEnabled()) {
+            StringBuilder urlsString = new StringBuilder();
+            for (URL url : urls) {
+                urlsString.append("\t").append(url.toExternalForm()).append("\n");
             }
+            log.debug("going to scan these urls:\n" + urlsString);
         }
 
         long time = System.currentTimeMillis();
 
-        ExecutorService executorService = configuration.getExecutorService();
+        ExecutorService executorService = getExecutorService();
+        //dirs are pooled by the session, if any, otherwise they are closed once scanned
+        DirPool dirPool = session != null ? session.getDirPool() : new DirPool();
+
+        Set<URL> scannedUrls = urls; //the urls to scan, those whose saved indexes were not collected
+        try {
+            if (collectsSavedIndexes()) {
+                scannedUrls = collectSavedIndexes(urls, dirPool);
+            }
+
+            String stateSignature = getStateFile() != null || getCacheDir() != null ? getStateSignature() : null;
+            if (stateSignature == null && (getStateFile() != null || getCacheDir() != null)) {
+                if (log != null) log.warn("Reflections is doing a full scan, since the state and cache of a scan are kept only if all of the scanners " +
+                        "and their result filters, and the inputs filter, are described. see AbstractScanner#describe() and FilterBuilder#describe(Predicate)");
+            }
+
+            if (stateSignature != null) {
+                IncrementalScan incremental = new IncrementalScan(getStateFile(), getCacheDir(), stateSignature, store);
+                Set<URL> changedUrls = incremental.prepare(scannedUrls, dirPool, new Function<URL, Predicate<String>>() {
+                    public Predicate<String> apply(URL url) {
+                        return getInputsFilter(url, nestedPaths);
+                    }
+                });
+                scan(changedUrls, nestedPaths, executorService, dirPool, incremental);
+                incremental.save();
+            } else {
+                scan(scannedUrls, nestedPaths, executorService, dirPool, null);
+            }
+        } finally {
+            if (session == null) dirPool.close();
+        }
+        store.freeze();
+
+        time = System.currentTimeMillis() - time;
 
+        Integer keys = store.getKeysCount();
+        Integer values = store.getValuesCount();
+
+        if (log != null) log.info(format("Reflections took %d ms to scan %d urls%s, producing %d keys and %d values %s",
+                time, urls.size(),
+                collectsSavedIndexes() ? format(" (%d collected from saved indexes, %d scanned)", urls.size() - scannedUrls.size(), scannedUrls.size()) : "",
+                keys, values,
+                executorService != null && executorService instanceof ThreadPoolExecutor ?
+                        format("[using %d cores]", ((ThreadPoolExecutor) executorService).getMaximumPoolSize()) : ""));
+    }
+
+    private void scan(final Set<URL> urls, final Multimap<URL, String> nestedPaths, @Nullable final ExecutorService executorService,
+                      final DirPool dirPool, @Nullable final IncrementalScan incremental) {
         if (executorService == null) {
-            for (URL url : configuration.getUrls()) {
+            for (URL url : urls) {
+                Vfs.Dir dir = null;
                 try {
-                    for (final Vfs.File file : Vfs.fromURL(url).getFiles()) {
-                        scan(file);
+                    dir = dirPool.acquire(url);
+                    for (final Vfs.File file : Vfs.getFiles(dir, getInputsFilter(url, nestedPaths, incremental))) {
+                        scan(file, incremental);
                     }
                 } catch (ReflectionsException e) {
                     if (log != null) log.error("could not create Vfs.Dir from url. ignoring the exception and continuing", e);
+                } finally {
+                    if (dir != null) dirPool.release(dir);
                 }
-
             }
+            ReadBuffer.releaseLocal();
         } else {
-            //todo use CompletionService
-            List<Future<?>> futures = Lists.newArrayList();
-            try {
-                for (URL url : configuration.getUrls()) {
-                    try {
-                        for (final Vfs.File file : Vfs.fromURL(url).getFiles()) {
-                            futures.add(executorService.submit(new Runnable() {
-                                public void run() {
-                                    scan(file);
-                                }
-                            }));
+            //the executor service is not shut down, it might be shared with other scans
+            int parallelism = ScanScheduler.parallelism(executorService);
+            int readerThreads = getReaderThreads();
+            ScanScheduler scheduler = readerThreads > 0 ?
+                    new ScanPipeline(urls, parallelism, readerThreads, dirPool) {
+                        protected void scan(Vfs.File file) {
+                            Reflections.this.scan(file, incremental);
+                        }
+
+                        protected void releaseWorker() {
+                            store.releaseLocal();
+                            ReadBuffer.releaseLocal();
+                        }
+
+                        protected Predicate<String> getInputsFilter(URL url) {
+                            return Reflections.this.getInputsFilter(url, nestedPaths, incremental);
                         }
-                    } catch (ReflectionsException e) {
-                        if (log != null) log.error("could not create Vfs.Dir from url. ignoring the exception and continuing", e);
+                    } :
+                    new ScanScheduler(urls, parallelism, dirPool) {
+                        protected void scan(Vfs.File file) {
+                            Reflections.this.scan(file, incremental);
+                        }
+
+                        protected void releaseWorker() {
+                            store.releaseLocal();
+                            ReadBuffer.releaseLocal();
+                        }
+
+                        protected Predicate<String> getInputsFilter(URL url) {
+                            return Reflections.this.getInputsFilter(url, nestedPaths, incremental);
+                        }
+                    };
+            scheduler.run(executorService);
+
+            store.flush();
+        }
+    }
+    
+    /** collects the saved indexes of the given urls holding ones compatible with the scanners, and returns the other urls, to be scanned.
+     * <p>the entries of the saved indexes are filtered by the result filters of the scanners. the inputs filter cannot be told apart
+     * in a saved index, so a url is collected only if the inputs filter accepts all of its files */
+    private Set<URL> collectSavedIndexes(final Set<URL> urls, final DirPool dirPool) {
+        Set<String> indexNames = Sets.newHashSet();
+        for (Scanner scanner : configuration.getScanners()) {
+            indexNames.add(scanner.getClass().getSimpleName());
+        }
+
+        Serializer serializer = new XmlSerializer();
+        Predicate<String> savedIndexFilter = new FilterBuilder().include(FilterBuilder.prefix("META-INF.reflections"));
+        Predicate<String> inputsFilter = getInputsFilter();
+        boolean acceptsAll = inputsFilter == Predicates.<String>alwaysTrue();
+        Set<URL> result = Sets.newLinkedHashSet();
+
+        for (URL url : urls) {
+            List<Reflections> savedIndexes = Lists.newArrayList();
+            Vfs.Dir dir = null;
+            try {
+                dir = dirPool.acquire(url);
+                for (Vfs.File file : Vfs.getFiles(dir, acceptsAll ? savedIndexFilter : Predicates.<String>alwaysTrue())) {
+                    String path = file.getRelativePath().replace('/', '.');
+                    if (!savedIndexFilter.apply(path) || !file.getName().endsWith("-reflections.xml")) {
+                        if (acceptsAll || inputsFilter.apply(path)) continue;
+                        if (log != null) log.info("Reflections is scanning " + url + " since the inputs filter does not accept all of its files, such as " + file);
+                        savedIndexes = null;
+                        break;
                     }
-                }
 
-                for (Future future : futures) {
-                    try { future.get(); } catch (Exception e) { throw new RuntimeException(e); }
+                    Reflections savedIndex = read(serializer, file);
+                    if (!savedIndex.store.getStoreMap().keySet().containsAll(indexNames)) {
+                        if (log != null) log.info("Reflections is scanning " + url + " since the saved index " + file + " does not hold all scanners");
+                        savedIndexes = null;
+                        break;
+                    }
+                    savedIndexes.add(savedIndex);
                 }
+            } catch (ReflectionsException e) {
+                if (log != null) log.warn("could not collect saved indexes from url " + url + ". scanning it instead", e);
+                savedIndexes = null;
             } finally {
-                executorService.shutdown();
+                if (dir != null) dirPool.release(dir);
+            }
+
+            if (savedIndexes == null || savedIndexes.isEmpty()) {
+                result.add(url);
+            } else {
+                for (Reflections savedIndex : savedIndexes) {
+                    for (Scanner scanner : configuration.getScanners()) {
+                        collect(scanner, savedIndex.store.getOrCreate(scanner.getClass().getSimpleName()));
+                    }
+                }
             }
         }
 
-        time = System.currentTimeMillis() - time;
+        if (log != null) log.info(format("Reflections collected saved indexes of %d urls, %d urls to be scanned", urls.size() - result.size(), result.size()));
+        return result;
+    }
 
-        Integer keys = store.getKeysCount();
-        Integer values = store.getValuesCount();
+    /** puts the entries of the given saved index the given scanner accepts into its store */
+    private static void collect(final Scanner scanner, final Multimap<String, String> savedIndex) {
+        if (scanner instanceof AbstractScanner) {
+            ((AbstractScanner) scanner).collect(savedIndex);
+        } else {
+            for (Map.Entry<String, String> entry : savedIndex.entries()) {
+                if (scanner.acceptResult(entry.getKey())) scanner.getStore().put(entry.getKey(), entry.getValue());
+            }
+        }
+    }
 
-        if (log != null) log.info(format("Reflections took %d ms to scan %d urls, producing %d keys and %d values %s",
-                time, configuration.getUrls().size(), keys, values,
-                executorService != null && executorService instanceof ThreadPoolExecutor ?
-                        format("[using %d cores]", ((ThreadPoolExecutor) executorService).getMaximumPoolSize()) : ""));
+    /** the inputs filter of the given url, leaving out the files an incremental scan does not rescan */
+    private Predicate<String> getInputsFilter(final URL url, final Multimap<URL, String> nestedPaths, @Nullable final IncrementalScan incremental) {
+        return incremental != null ? incremental.getInputsFilter(url) : getInputsFilter(url, nestedPaths);
     }
-    
+
+    /** the signature of the configuration an incremental scan state or cache is valid for, its scanners along with their result filters
+     * and options, and its inputs filter. null if any of them is not described, see {@link AbstractScanner#describe()} */
+    @Nullable private String getStateSignature() {
+        List<String> scanners = Lists.newArrayList();
+        for (Scanner scanner : configuration.getScanners()) {
+            String description = scanner instanceof AbstractScanner ? ((AbstractScanner) scanner).describe() : null;
+            if (description == null) return null;
+            scanners.add(description);
+        }
+        Collections.sort(scanners);
+        String inputsFilter = FilterBuilder.describe(getInputsFilter());
+        return inputsFilter != null ? scanners + " " + inputsFilter : null;
+    }
+
+    /** the inputs filter of the given url, leaving out the directories of the other urls nested in it */
+    private Predicate<String> getInputsFilter(final URL url, final Multimap<URL, String> nestedPaths) {
+        Collection<String> paths = nestedPaths.get(url);
+        if (paths.isEmpty()) return getInputsFilter();
+
+        FilterBuilder inputsFilter = new FilterBuilder().add(getInputsFilter());
+        for (String path : paths) {
+            inputsFilter.exclude(FilterBuilder.literal(path.replace('/', '.')) + "\\..*");
+        }
+        return inputsFilter;
+    }
+
+    /** the executor service of the session, if any, otherwise of the configuration */
+    @Nullable private ExecutorService getExecutorService() {
+        return session != null && session.getExecutorService() != null ? session.getExecutorService() : configuration.getExecutorService();
+    }
+
+    /** the inputs filter of the configuration, as set to a {@link ConfigurationBuilder}, otherwise delegating to {@link Configuration#acceptsInput(String)} */
+    private Predicate<String> getInputsFilter() {
+        if (configuration instanceof ConfigurationBuilder) return ((ConfigurationBuilder) configuration).getInputsFilter();
+        return new Predicate<String>() {
+            public boolean apply(String input) {
+                return configuration.acceptsInput(input);
+            }
+        };
+    }
+
+    /** the state file of an incremental scan, set by a {@link ConfigurationBuilder} only */
+    @Nullable private File getStateFile() {
+        return configuration instanceof ConfigurationBuilder ? ((ConfigurationBuilder) configuration).getStateFile() : null;
+    }
+
+    /** the scan cache directory, set by a {@link ConfigurationBuilder} only */
+    @Nullable private File getCacheDir() {
+        return configuration instanceof ConfigurationBuilder ? ((ConfigurationBuilder) configuration).getCacheDir() : null;
+    }
+
+    /** whether saved indexes are collected, set by a {@link ConfigurationBuilder} only */
+    private boolean collectsSavedIndexes() {
+        return configuration instanceof ConfigurationBuilder && ((ConfigurationBuilder) configuration).collectsSavedIndexes();
+    }
+
+    /** the reader workers of a pipelined scan, set by a {@link ConfigurationBuilder} only */
+    private int getReaderThreads() {
+        return configuration instanceof ConfigurationBuilder ? ((ConfigurationBuilder) configuration).getReaderThreads() : 0;
+    }
+
+    /** scans the given file, recording its writes for an incremental scan, if any */
+    private void scan(final Vfs.File file, @Nullable final IncrementalScan incremental) {
+        if (incremental == null) {
+            scan(file);
+        } else {
+            store.startRecording();
+            try {
+                scan(file);
+            } finally {
+                incremental.scanned(file, store.stopRecording());
+            }
+        }
+    }
+
     private void scan(Vfs.File file) {
         String input = file.getRelativePath().replace('/', '.');
         if (configuration.acceptsInput(input)) {
+            List<Scanner> scanners = Lists.newArrayListWithCapacity(configuration.getScanners().size());
+            boolean preFiltered = false;
             for (Scanner scanner : configuration.getScanners()) {
+                if (scanner.acceptsInput(input)) {
+                    scanners.add(scanner);
+                    preFiltered |= getConstantPoolFilter(scanner) != null;
+                }
+            }
+
+            Set<MetadataAdapter.Part> parts = getRequirements(scanners);
+            if ((preFiltered || !parts.isEmpty()) && !(file instanceof BufferedFile)) {
+                file = read(file);
+            }
+
+            if (preFiltered && file instanceof BufferedFile && preFilter((BufferedFile) file, scanners)) {
+                parts = getRequirements(scanners);
+            }
+
+            Object classObject = !parts.isEmpty() ? createClassObject(file, parts) : null; //created once and passed on to all scanners
+            for (Scanner scanner : scanners) {
                 try {
-                    if (scanner.acceptsInput(input)) {
+                    if (sharesClassObject(scanner)) {
+                        classObject = ((AbstractScanner) scanner).scan(file, classObject);
+                    } else {
                         scanner.scan(file);
                     }
                 } catch (Exception e) {
-                    log.warn("could not scan file " + file.getFullPath() + " with scanner " + scanner.getClass().getSimpleName(), e);
+                    if (log != null) log.warn("could not scan file " + file.getFullPath() + " with scanner " + scanner.getClass().getSimpleName(), e);
                 }
             }
         }
     }
 
+    /** reads the given file into the calling thread's reusable buffer, where it is valid until the thread reads the next file.
+     * returns the file as is if it could not be read, scanners would fail on it by themselves */
+    private Vfs.File read(final Vfs.File file) {
+        try {
+            return ReadBuffer.local().read(file);
+        } catch (IOException e) {
+            return file;
+        }
+    }
+
+    /** removes the scanners whose constant pool filter rejects the given file, returns true if any was removed */
+    private boolean preFilter(final BufferedFile file, final List<Scanner> scanners) {
+        boolean removed = false;
+        for (Iterator<Scanner> iterator = scanners.iterator(); iterator.hasNext(); ) {
+            ConstantPoolFilter filter = getConstantPoolFilter(iterator.next());
+            if (filter != null && !filter.accepts(file.getBytes(), file.getLength())) {
+                iterator.remove();
+                removed = true;
+            }
+        }
+        return removed;
+    }
+
+    /** the constant pool filter of the given scanner, if it is an {@link AbstractScanner} that has one */
+    @Nullable private static ConstantPoolFilter getConstantPoolFilter(final Scanner scanner) {
+        return scanner instanceof AbstractScanner ? ((AbstractScanner) scanner).getConstantPoolFilter() : null;
+    }
+
+    /** true if the given scanner is given the class object shared by the scanners of a file, see {@link AbstractScanner#sharesClassObject()} */
+    private static boolean sharesClassObject(final Scanner scanner) {
+        return scanner instanceof AbstractScanner && ((AbstractScanner) scanner).sharesClassObject();
+    }
+
+    /** the parts of the shared class object read by the given scanners.
+     * other scanners are not given the shared class object, and require none of it */
+    private static Set<MetadataAdapter.Part> getRequirements(final List<Scanner> scanners) {
+        Set<MetadataAdapter.Part> parts = EnumSet.noneOf(MetadataAdapter.Part.class);
+        for (Scanner scanner : scanners) {
+            if (sharesClassObject(scanner)) parts.addAll(((AbstractScanner) scanner).getRequirements());
+        }
+        return parts;
+    }
+
+    /** creates the class object of the given file, parsing only the given parts required by the scanners.
+     * returns null if it could not be created, in which case the scanners would try again by themselves */
+    @Nullable private Object createClassObject(final Vfs.File file, final Set<MetadataAdapter.Part> parts) {
+        try {
+            MetadataAdapter adapter = configuration.getMetadataAdapter();
+            return adapter instanceof PartialMetadataAdapter ?
+                    ((PartialMetadataAdapter) adapter).getOfCreateClassObject(file, parts) :
+                    adapter.getOfCreateClassObject(file);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
     /** collect saved Reflection xml resources and merge it into a Reflections instance
      * <p>by default, resources are collected from all urls that contains the package META-INF/reflections
      * and includes files matching the pattern .*-reflections.xml
@@ -299,31 +603,55 @@ public class Reflections extends ReflectionUtils {
      * so that relevant urls could be found much faster
      */
     public static Reflections collect(final String packagePrefix, final Predicate<String> resourceNameFilter, final Serializer serializer) {
+        DirPool dirPool = new DirPool();
+        try {
+            return collect(packagePrefix, resourceNameFilter, serializer, dirPool);
+        } finally {
+            dirPool.close();
+        }
+    }
+
+    /** collect saved Reflections resources as above, reading the urls through the given pool of dirs */
+    static Reflections collect(final String packagePrefix, final Predicate<String> resourceNameFilter, final Serializer serializer,
+                               final DirPool dirPool) {
         final Reflections reflections = new Reflections();
 
-        for (final Vfs.File file : Vfs.findFiles(ClasspathHelper.forPackage(packagePrefix), packagePrefix, resourceNameFilter)) {
-            InputStream inputStream = null;
+        for (URL url : ClasspathHelper.forPackage(packagePrefix)) {
+            Vfs.Dir dir = dirPool.acquire(url);
             try {
-                inputStream = file.openInputStream();
-                reflections.merge(serializer.read(inputStream));
-                if (log != null) //noinspection ConstantConditions
-                    log.info("Reflections collected metadata from " + file + " using serializer " + serializer.getClass().getName());
-            } catch (IOException e) {
-                throw new ReflectionsException("could not merge " + file, e);
+                for (final Vfs.File file : Vfs.findFiles(dir, packagePrefix, resourceNameFilter)) {
+                    reflections.merge(read(serializer, file));
+                    if (log != null) //noinspection ConstantConditions
+                        log.info("Reflections collected metadata from " + file + " using serializer " + serializer.getClass().getName());
+                }
             } finally {
-                close(inputStream);
+                dirPool.release(dir);
             }
         }
 
+        reflections.store.freeze();
         return reflections;
     }
 
+    private static Reflections read(final Serializer serializer, final Vfs.File file) {
+        InputStream inputStream = null;
+        try {
+            inputStream = file.openInputStream();
+            return serializer.read(inputStream);
+        } catch (IOException e) {
+            throw new ReflectionsException("could not merge " + file, e);
+        } finally {
+            close(inputStream);
+        }
+    }
+
     /** merges saved Reflections resources from the given input stream, using the serializer configured in this instance's Configuration
      * <br> useful if you know the serialized resource location and prefer not to look it up the classpath
      * */
     public Reflections collect(final InputStream inputStream) {
         try {
             merge(configuration.getSerializer().read(inputStream));
+            store.freeze();
             if (log != null) //noinspection ConstantConditions
                 log.info("Reflections collected metadata from input stream using serializer " + configuration.getSerializer().getClass().getName());
         } catch (Exception ex) {
@@ -0,0 +1,175 @@
+package org.reflections;
+
+import org.reflections.vfs.BufferedFile;
+import org.reflections.vfs.DirPool;
+import org.reflections.vfs.ReadBuffer;
+import org.reflections.vfs.Vfs;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.Collection;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.reflections.Reflections.log;
+
+/**
+ * a pipelined scan, separating the reading of files from their scanning
+ * <p>reader workers enumerate the urls and read the accepted class files into memory, handing them over to the scanning workers
+ * through a bounded queue. that way blocking reads overlap with parsing and scanning, while the queue bounds the files read ahead.
+ * scanning workers write into the thread local shards of the concurrent {@link Store}, which are merged into it once the scan is done.
+ * <p>files are read into {@link ReadBuffer}s taken from a pool, and returned to it once scanned, the number of buffers is bounded by the queue.
+ * files too large for a reused buffer, and files not read at all, leave their buffer to the pool right away.
+ * files that are not read ahead are scanned by the reader itself, so that a dir is released to the {@link DirPool} once enumerated.
+ * <p>the calling thread is a scanning worker, and reads urls by itself whenever the readers do not keep up
+ */
+abstract class ScanPipeline extends ScanScheduler {
+    private static final long POLL_MILLIS = 10;
+
+    private final int readers;
+    private final BlockingQueue<Vfs.File> files;
+    private final AtomicInteger pendingUrls;
+    private final Queue<ReadBuffer> buffers = new ConcurrentLinkedQueue<ReadBuffer>();
+
+    ScanPipeline(final Collection<URL> urls, final int parallelism, final int readers, final DirPool dirPool) {
+        super(urls, parallelism, dirPool);
+        this.readers = Math.max(1, Math.min(readers, this.parallelism));
+        this.files = new ArrayBlockingQueue<Vfs.File>(BATCH_SIZE * this.parallelism);
+        this.pendingUrls = new AtomicInteger(this.urls.size());
+    }
+
+    @Override protected void startWorkers(final ExecutorService executorService) {
+        //readers are submitted first, so that they get their threads before the scanning workers take the rest
+        int submitted = 0;
+        while (submitted < readers && submit(executorService, read())) {
+            submitted++;
+        }
+        for (int i = submitted + 1; i < parallelism; i++) {
+            if (!submit(executorService, work())) break;
+        }
+    }
+
+    /** the work of a reader */
+    protected Runnable read() {
+        return new Runnable() {
+            public void run() {
+                URL url;
+                while (!failed() && (url = urls.poll()) != null) {
+                    read(url, false);
+                }
+            }
+        };
+    }
+
+    /** the work of a scanning worker */
+    @Override protected Runnable work() {
+        return new Runnable() {
+            public void run() {
+                while (!failed()) {
+                    boolean done = pendingUrls.get() == 0; //checked before polling, since readers enqueue before they are done
+                    Vfs.File file = poll();
+                    if (file != null) {
+                        scanAndRelease(file);
+                    } else if (done) {
+                        return;
+                    }
+                }
+            }
+        };
+    }
+
+    /** the work of the calling thread, a scanning worker that reads by itself when there is nothing to scan */
+    @Override protected Runnable callerWork() {
+        return new Runnable() {
+            public void run() {
+                while (!failed()) {
+                    boolean done = pendingUrls.get() == 0;
+                    Vfs.File file = poll();
+                    if (file != null) {
+                        scanAndRelease(file);
+                    } else if (done) {
+                        return;
+                    } else {
+                        URL url = urls.poll();
+                        if (url != null) {
+                            read(url, true);
+                        }
+                    }
+                }
+            }
+        };
+    }
+
+    private void read(final URL url, final boolean scanWhenFull) {
+        Vfs.Dir dir = null;
+        try {
+            dir = dirPool.acquire(url);
+            for (final Vfs.File file : Vfs.getFiles(dir, getInputsFilter(url))) {
+                Vfs.File read = readAhead(file);
+                if (!(read instanceof BufferedFile)) {
+                    scan(read); //read from the dir, before it is released
+                } else if (scanWhenFull) {
+                    if (!files.offer(read)) {
+                        scanAndRelease(read);
+                    }
+                } else {
+                    while (!files.offer(read, POLL_MILLIS, MILLISECONDS)) {
+                        if (failed()) return;
+                    }
+                }
+            }
+        } catch (ReflectionsException e) {
+            if (log != null) log.error("could not create Vfs.Dir from url. ignoring the exception and continuing", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ReflectionsException("interrupted while reading " + url, e);
+        } finally {
+            if (dir != null) dirPool.release(dir);
+            pendingUrls.decrementAndGet();
+        }
+    }
+
+    /** reads class files into memory. other files are passed as is, scanners of other files need not read them */
+    private Vfs.File readAhead(final Vfs.File file) {
+        if (!file.getRelativePath().endsWith(".class")) return file;
+
+        ReadBuffer buffer = buffers.poll();
+        if (buffer == null) buffer = new ReadBuffer();
+        BufferedFile read = null;
+        try {
+            read = buffer.read(file);
+            return read;
+        } catch (IOException e) {
+            if (log != null) log.warn("could not read file " + file.getFullPath() + ". it would be read again while scanning", e);
+            return file;
+        } finally {
+            //the buffer is released once the file is scanned only if the file was read into it, not into an array of its own
+            if (read == null || read.getBuffer() != buffer) buffers.offer(buffer);
+        }
+    }
+
+    /** scans the given file, and returns its buffer to the pool */
+    private void scanAndRelease(final Vfs.File file) {
+        try {
+            scan(file);
+        } finally {
+            if (file instanceof BufferedFile && ((BufferedFile) file).getBuffer() != null) {
+                buffers.offer(((BufferedFile) file).getBuffer());
+            }
+        }
+    }
+
+    private Vfs.File poll() {
+        try {
+            return files.poll(POLL_MILLIS, MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ReflectionsException("interrupted while scanning", e);
+        }
+    }
+}
@@ -0,0 +1,333 @@
+package org.reflections;
+
+import com.google.common.base.Predicate;
+import com.google.common.collect.Lists;
+import org.reflections.vfs.DirPool;
+import org.reflections.vfs.SystemDir;
+import org.reflections.vfs.Vfs;
+
+import java.net.URL;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.reflections.Reflections.log;
+
+/**
+ * schedules the scan of urls over an {@link ExecutorService}
+ * <p>rather than submitting a task per file, a fixed number of workers is submitted, each taking a whole url,
+ * enumerating its files and scanning them in batches. batches are offered to a bounded queue from which idle workers take work,
+ * so that the files of a large url are spread over all workers, while an enumerating worker scans its batches by itself once the queue is full.
+ * <p>directories are enumerated in parallel as well, subdirectories are offered to another bounded queue as they are found,
+ * from which idle workers take whole subtrees to enumerate, while an enumerating worker goes into them by itself once the queue is full.
+ * <p>only files accepted by the inputs filter are enumerated, directories none of whose files might be accepted are skipped.
+ * <p>dirs are acquired from a {@link DirPool}, each one is released once all of the batches and subtrees taken from it were scanned.
+ * <p>idle workers wait while urls or subtrees are still being enumerated, since those might offer more batches, and are done once
+ * nothing is left to enumerate and the queues are empty.
+ * <p>the calling thread is a worker as well, so that scanning progresses even if the executor is busy with other tasks
+ */
+abstract class ScanScheduler {
+    static final int BATCH_SIZE = 256;
+    /** workers per processor when every worker gets its own thread, enough to overlap blocking reads with scanning */
+    static final int THREAD_PER_TASK_WORKERS_PER_CPU = 16;
+    /** how long an idle worker waits before looking for work again, while urls or subtrees are being enumerated */
+    private static final long IDLE_NANOS = 100 * 1000;
+
+    protected final Queue<URL> urls;
+    protected final int parallelism;
+    protected final DirPool dirPool;
+    private final BlockingQueue<Batch> batches;
+    private final BlockingQueue<Batch> subtrees;
+    private final AtomicInteger enumerations; //the urls and subtrees not enumerated yet, queued or being enumerated
+
+    private final Lock lock = new ReentrantLock();
+    private final Condition idle = lock.newCondition();
+    private int activeWorkers;
+    private boolean closed;
+    private final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+
+    ScanScheduler(final Collection<URL> urls, final int parallelism, final DirPool dirPool) {
+        this.urls = new ConcurrentLinkedQueue<URL>(urls);
+        this.parallelism = Math.max(1, parallelism);
+        this.dirPool = dirPool;
+        this.batches = new ArrayBlockingQueue<Batch>(2 * this.parallelism);
+        this.subtrees = new ArrayBlockingQueue<Batch>(2 * this.parallelism);
+        this.enumerations = new AtomicInteger(this.urls.size());
+    }
+
+    /** the number of workers to use with the given executor service.
+     * <p>a thread pool gets as many workers as its core threads, but no more than its maximum. pools without core threads,
+     * such as cached thread pools, whose maximum is unbounded, get a worker per processor.
+     * <p>thread per task executors, such as the virtual thread executor, start a thread for each worker, so that more workers than
+     * processors are used, letting workers blocked on reads leave the processors to the others */
+    static int parallelism(final ExecutorService executorService) {
+        int processors = Runtime.getRuntime().availableProcessors();
+        if (executorService instanceof ThreadPoolExecutor) {
+            ThreadPoolExecutor pool = (ThreadPoolExecutor) executorService;
+            return Math.min(pool.getMaximumPoolSize(), pool.getCorePoolSize() > 0 ? pool.getCorePoolSize() : processors);
+        } else if (isThreadPerTask(executorService)) {
+            return processors * THREAD_PER_TASK_WORKERS_PER_CPU;
+        } else {
+            return processors;
+        }
+    }
+
+    private static boolean isThreadPerTask(final ExecutorService executorService) {
+        return executorService != null && executorService.getClass().getName().equals("java.util.concurrent.ThreadPerTaskExecutor");
+    }
+
+    /** scans a single file, called concurrently by the workers */
+    protected abstract void scan(Vfs.File file);
+
+    /** releases what the calling worker thread holds for scanning, called by each worker once done */
+    protected abstract void releaseWorker();
+
+    /** the filter of the files to be scanned in the given url */
+    protected abstract Predicate<String> getInputsFilter(URL url);
+
+    /** scans all urls using the given executor service and the calling thread, and returns once all files were scanned */
+    void run(final ExecutorService executorService) {
+        startWorkers(executorService);
+
+        work(callerWork());
+        awaitWorkers();
+        releaseUnscanned();
+
+        Throwable throwable = failure.get();
+        if (throwable != null) {
+            throw new ReflectionsException("could not scan urls", throwable);
+        }
+    }
+
+    /** submits the workers other than the calling thread */
+    protected void startWorkers(final ExecutorService executorService) {
+        for (int i = 1; i < parallelism; i++) {
+            if (!submit(executorService, work())) break;
+        }
+    }
+
+    /** the work of a worker thread */
+    protected Runnable work() {
+        return new Runnable() {
+            public void run() {
+                while (!failed()) {
+                    boolean done = enumerations.get() == 0; //checked before polling, since enumerations offer their batches before they are done
+                    Batch batch = batches.poll();
+                    if (batch != null) {
+                        scan(batch);
+                        continue;
+                    }
+
+                    Batch subtree = subtrees.poll();
+                    if (subtree != null) {
+                        enumerate(subtree);
+                        continue;
+                    }
+
+                    URL url = urls.poll();
+                    if (url != null) {
+                        scan(url);
+                        continue;
+                    }
+
+                    if (done) return;
+                    LockSupport.parkNanos(IDLE_NANOS); //another worker is enumerating, and might offer batches
+                }
+            }
+        };
+    }
+
+    /** the work of the calling thread */
+    protected Runnable callerWork() {
+        return work();
+    }
+
+    /** submits the given work, returns false if the executor rejected it. the worker threads already running, and the calling thread, would do */
+    protected boolean submit(final ExecutorService executorService, final Runnable work) {
+        try {
+            executorService.submit(new Runnable() {
+                public void run() {
+                    work(work);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    protected boolean failed() {
+        return failure.get() != null;
+    }
+
+    private void scan(final URL url) {
+        Lease lease = null;
+        try {
+            lease = new Lease(dirPool.acquire(url));
+            Predicate<String> inputsFilter = getInputsFilter(url);
+            scan(lease.dir instanceof SystemDir ? subtree(lease, inputsFilter, "") : Vfs.getFiles(lease.dir, inputsFilter), lease);
+        } catch (ReflectionsException e) {
+            if (log != null) log.error("could not create Vfs.Dir from url. ignoring the exception and continuing", e);
+        } finally {
+            if (lease != null) lease.release();
+            enumerations.decrementAndGet();
+        }
+    }
+
+    /** the files of the given subtree, offering its subdirectories to idle workers as they are found */
+    private Iterable<Vfs.File> subtree(final Lease lease, final Predicate<String> inputsFilter, final String relativePath) {
+        return ((SystemDir) lease.dir).getFiles(relativePath, inputsFilter, new Predicate<String>() {
+            public boolean apply(String subdirectory) {
+                enumerations.incrementAndGet();
+                if (offer(subtrees, new Batch(subtree(lease, inputsFilter, subdirectory), lease))) return true;
+                enumerations.decrementAndGet();
+                return false;
+            }
+        });
+    }
+
+    private void scan(final Iterable<Vfs.File> files, final Lease lease) {
+        List<Vfs.File> batch = Lists.newArrayListWithCapacity(BATCH_SIZE);
+        for (final Vfs.File file : files) {
+            batch.add(file);
+            if (batch.size() == BATCH_SIZE) {
+                if (!offer(batches, new Batch(batch, lease))) {
+                    scan(batch);
+                }
+                batch = Lists.newArrayListWithCapacity(BATCH_SIZE);
+            }
+        }
+        scan(batch);
+    }
+
+    /** scans the files of the given batch, and releases its lease */
+    private void scan(final Batch batch) {
+        try {
+            scan(batch.files);
+        } finally {
+            batch.lease.release();
+        }
+    }
+
+    /** enumerates and scans the given subtree, and releases its lease */
+    private void enumerate(final Batch subtree) {
+        try {
+            scan(subtree.files, subtree.lease);
+        } finally {
+            subtree.lease.release();
+            enumerations.decrementAndGet();
+        }
+    }
+
+    private void scan(final Iterable<Vfs.File> files) {
+        for (Vfs.File file : files) {
+            scan(file);
+        }
+    }
+
+    /** offers the given batch to the given queue, retaining its lease while queued */
+    private static boolean offer(final BlockingQueue<Batch> queue, final Batch batch) {
+        batch.lease.retain();
+        if (queue.offer(batch)) return true;
+        batch.lease.release();
+        return false;
+    }
+
+    /** releases the leases of batches left unscanned after a failure */
+    private void releaseUnscanned() {
+        Batch batch;
+        while ((batch = batches.poll()) != null || (batch = subtrees.poll()) != null) {
+            batch.lease.release();
+        }
+    }
+
+    /** a dir acquired from the pool, released once the work taken from it is done */
+    private class Lease {
+        final Vfs.Dir dir;
+        private final AtomicInteger pending = new AtomicInteger(1);
+
+        Lease(final Vfs.Dir dir) {
+            this.dir = dir;
+        }
+
+        void retain() {
+            pending.incrementAndGet();
+        }
+
+        void release() {
+            if (pending.decrementAndGet() == 0) dirPool.release(dir);
+        }
+    }
+
+    /** files to be scanned, or a subtree to be enumerated, holding the lease of their dir */
+    private static class Batch {
+        final Iterable<Vfs.File> files;
+        final Lease lease;
+
+        Batch(final Iterable<Vfs.File> files, final Lease lease) {
+            this.files = files;
+            this.lease = lease;
+        }
+    }
+
+    //
+    private void work(final Runnable work) {
+        if (!enter()) return; //started after all work was done
+        try {
+            try {
+                work.run();
+            } finally {
+                releaseWorker();
+            }
+        } catch (Throwable e) {
+            failure.compareAndSet(null, e);
+        } finally {
+            exit();
+        }
+    }
+
+    private boolean enter() {
+        lock.lock();
+        try {
+            if (closed) return false;
+            activeWorkers++;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void exit() {
+        lock.lock();
+        try {
+            if (--activeWorkers == 0) idle.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** waits for the workers that already started. workers that did not start yet would not start at all */
+    private void awaitWorkers() {
+        lock.lock();
+        try {
+            closed = true;
+            while (activeWorkers > 0) {
+                idle.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+}
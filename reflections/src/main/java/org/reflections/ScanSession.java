@@ -0,0 +1,78 @@
+package org.reflections;
+
+import com.google.common.base.Predicate;
+import org.reflections.serializers.Serializer;
+import org.reflections.vfs.DirPool;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * a scan session, scanning many {@link Configuration}s on a shared executor service which it borrows and never shuts down
+ * <p>for example:
+ * <pre>
+ *     ScanSession session = new ScanSession(executorService);
+ *
+ *     Reflections reflections1 = session.scan(configuration1);
+ *     Future&#60Reflections> reflections2 = session.submit(configuration2);
+ *     Future&#60Reflections> reflections3 = session.submit(configuration3);
+ *     ...
+ *     session.close();
+ * </pre>
+ * <p>the executor service of the scanned configurations is ignored, the session's executor service is used instead.
+ * scans may run back to back or concurrently, each scan also uses the thread it runs on, so that concurrent scans
+ * progress even when all of the executor's threads are taken
+ * <p>the session owns a {@link DirPool}, so that the archives scanned or collected from are opened once for all of its scans,
+ * and are closed once the session is closed
+ */
+public class ScanSession {
+    private final ExecutorService executorService;
+    private final DirPool dirPool;
+
+    /** creates a session scanning on the given executor service */
+    public ScanSession(final ExecutorService executorService) {
+        this(executorService, new DirPool());
+    }
+
+    /** creates a session scanning on the given executor service, or on the executor service of each configuration if null,
+     * reading the urls through the given pool of dirs */
+    public ScanSession(final ExecutorService executorService, final DirPool dirPool) {
+        this.executorService = executorService;
+        this.dirPool = dirPool;
+    }
+
+    /** the executor service used for scanning, owned by the caller */
+    public ExecutorService getExecutorService() {
+        return executorService;
+    }
+
+    /** the pool of the dirs scanned or collected from, closed once the session is closed */
+    public DirPool getDirPool() {
+        return dirPool;
+    }
+
+    /** constructs a Reflections instance and scan according to given {@link Configuration} on the calling thread and the session's executor service */
+    public Reflections scan(final Configuration configuration) {
+        return new Reflections(configuration, this);
+    }
+
+    /** submits the construction of a Reflections instance according to given {@link Configuration} to the session's executor service */
+    public Future<Reflections> submit(final Configuration configuration) {
+        return executorService.submit(new Callable<Reflections>() {
+            public Reflections call() {
+                return scan(configuration);
+            }
+        });
+    }
+
+    /** collect saved Reflections resources as {@link Reflections#collect(String, Predicate, Serializer)} does, reading the urls through the session's pool of dirs */
+    public Reflections collect(final String packagePrefix, final Predicate<String> resourceNameFilter, final Serializer serializer) {
+        return Reflections.collect(packagePrefix, resourceNameFilter, serializer, dirPool);
+    }
+
+    /** closes the dirs of the session's pool. the executor service is not shut down, it is owned by the caller */
+    public void close() {
+        dirPool.close();
+    }
+}
@@ -7,36 +7,64 @@ import org.reflections.scanners.*;
 import org.reflections.scanners.Scanner;
 
 import javax.annotation.Nullable;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.lang.annotation.Inherited;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.regex.Pattern;
 
 import static com.google.common.collect.Multimaps.*;
 
 /**
  * stores metadata information in multimaps
+ * <p>all names stored, keys and values of all indexes, are interned into int ids of a {@link SymbolTable} shared by the indexes,
+ * each index holding sets of value ids by key id, see {@link SymbolMultimap}. the multimaps are string based views over the ids.
+ * <p>once scanned or collected, the indexes are frozen into sorted arrays, see {@link #freeze()}
  * <p>use the different query methods (getXXX) to query the metadata
  * <p>the query methods are string based, and does not cause the class loader to define the types
  * <p>use {@link org.reflections.Reflections#getStore()} to access this store
+ * <p>a concurrent store buffers the writes of each thread in a thread local shard, with no locking,
+ * and the shards are merged into the store on {@link #flush()}. until then, queries do not reflect those writes
+ * <p>a recording store records the writes of each thread while scanning a file, so that they can be replayed
+ * instead of scanning the file again, see {@link #startRecording()}
  */
 public class Store {
+    private static final int BINARY_MAGIC = 0x52464c42;
+    private static final int BINARY_VERSION = 1;
 
 	private final Map<String/*indexName*/, Multimap<String, String>> storeMap;
+    private final transient SymbolTable symbols;
     private final transient boolean concurrent;
+    @Nullable private final transient ThreadLocal<List<String>> recording;
 
     protected Store() {
         this(false);
     }
 
     protected Store(boolean concurrent) {
+        this(concurrent, false);
+    }
+
+    Store(boolean concurrent, boolean recording) {
+        this.symbols = new SymbolTable();
         this.concurrent = concurrent;
+        this.recording = recording ? new ThreadLocal<List<String>>() : null;
         storeMap = new HashMap<String, Multimap<String, String>>();
     }
 
-    private SetMultimap<String, String> createMultimap() {
-        return concurrent ?
-                synchronizedSetMultimap(newSetMultimap(new HashMap<String, Collection<String>>(), setSupplier)) :
-                Multimaps.newSetMultimap(new HashMap<String, Collection<String>>(), setSupplier);
+    private SetMultimap<String, String> createMultimap(final String indexName) {
+        SetMultimap<String, String> multimap = concurrent ? new ShardedMultimap(new SymbolMultimap(symbols)) : new SymbolMultimap(symbols);
+        return recording != null ? new RecordingMultimap(indexName, multimap, recording) : multimap;
+    }
+
+    private static SetMultimap<String, String> newHashSetMultimap() {
+        return newSetMultimap(new HashMap<String, Collection<String>>(), setSupplier);
     }
 
     public Multimap<String, String> getOrCreate(String indexName) {
@@ -45,7 +73,7 @@ public class Store {
         }
         Multimap<String, String> mmap = storeMap.get(indexName);
         if (mmap == null) {
-            storeMap.put(indexName, mmap = createMultimap());
+            storeMap.put(indexName, mmap = createMultimap(indexName));
         }
         return mmap;
     }
@@ -74,6 +102,167 @@ public class Store {
         return storeMap;
     }
 
+    /** merges the thread local shards of a concurrent store into it. should be called once all writing threads are done */
+    void flush() {
+        for (Multimap<String, String> multimap : storeMap.values()) {
+            if (multimap instanceof RecordingMultimap) {
+                multimap = ((RecordingMultimap) multimap).delegate();
+            }
+            if (multimap instanceof ShardedMultimap) {
+                ((ShardedMultimap) multimap).flush();
+            }
+        }
+    }
+
+    /** releases the thread local shards of the calling thread, once it is done writing into a concurrent store. see {@link #flush()} */
+    void releaseLocal() {
+        for (Multimap<String, String> multimap : storeMap.values()) {
+            if (multimap instanceof RecordingMultimap) {
+                multimap = ((RecordingMultimap) multimap).delegate();
+            }
+            if (multimap instanceof ShardedMultimap) {
+                ((ShardedMultimap) multimap).releaseLocal();
+            }
+        }
+    }
+
+    /** compacts the indexes of this store into read only arrays, once written. see {@link SymbolMultimap#freeze()}.
+     * <p>a concurrent store should be flushed first. writing into a frozen index thaws it back */
+    void freeze() {
+        for (Multimap<String, String> multimap : storeMap.values()) {
+            if (multimap instanceof RecordingMultimap) {
+                multimap = ((RecordingMultimap) multimap).delegate();
+            }
+            if (multimap instanceof ShardedMultimap) {
+                multimap = ((ShardedMultimap) multimap).delegate();
+            }
+            if (multimap instanceof SymbolMultimap) {
+                ((SymbolMultimap) multimap).freeze();
+            }
+        }
+        symbols.trim();
+    }
+
+    /** writes the indexes of this store in a binary format, that {@link #readBinary(java.nio.ByteBuffer)} reads in place.
+     * <p>that is the symbol table of all names, their utf-8 bytes along with a hash table of their ids,
+     * followed by each index frozen into arrays, see {@link SymbolMultimap#freeze()}. all numbers are big endian ints */
+    public void writeBinary(final OutputStream outputStream) throws IOException {
+        SymbolTable symbols = new SymbolTable();
+        List<String> indexNames = Lists.newArrayList(storeMap.keySet());
+        Collections.sort(indexNames);
+        List<SymbolMultimap> indexes = Lists.newArrayList();
+        for (String indexName : indexNames) {
+            symbols.intern(indexName);
+            SymbolMultimap index = new SymbolMultimap(symbols);
+            index.putAll(storeMap.get(indexName));
+            index.freeze();
+            indexes.add(index);
+        }
+
+        int count = symbols.size();
+        byte[][] names = new byte[count][];
+        int[] nameOffsets = new int[count + 1];
+        int slotsLength = 2;
+        while (slotsLength < 2 * count) slotsLength *= 2;
+        int[] slots = new int[slotsLength];
+        for (int id = 0; id < count; id++) {
+            names[id] = MappedSymbolTable.utf8(symbols.name(id));
+            nameOffsets[id + 1] = nameOffsets[id] + names[id].length;
+            int slot = SymbolTable.hash(symbols.name(id).hashCode()) & (slotsLength - 1);
+            while (slots[slot] != 0) slot = (slot + 1) & (slotsLength - 1);
+            slots[slot] = id + 1;
+        }
+
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(outputStream, 64 * 1024));
+        out.writeInt(BINARY_MAGIC);
+        out.writeInt(BINARY_VERSION);
+        out.writeInt(count);
+        out.writeInt(slotsLength);
+        writeInts(out, IntBuffer.wrap(nameOffsets));
+        writeInts(out, IntBuffer.wrap(slots));
+        int namesLength = (nameOffsets[count] + 3) & ~3; //padded, so that the ints that follow are aligned
+        out.writeInt(namesLength);
+        for (byte[] name : names) {
+            out.write(name);
+        }
+        out.write(new byte[namesLength - nameOffsets[count]]);
+
+        out.writeInt(indexes.size());
+        for (int i = 0; i < indexes.size(); i++) {
+            SymbolMultimap index = indexes.get(i);
+            out.writeInt(symbols.id(indexNames.get(i)));
+            out.writeInt(index.getKeyIds().limit());
+            out.writeInt(index.getValues().limit());
+            writeInts(out, index.getKeyIds());
+            writeInts(out, index.getOffsets());
+            writeInts(out, index.getValues());
+        }
+        out.flush();
+    }
+
+    /** adds the indexes written by {@link #writeBinary(java.io.OutputStream)} into the given buffer, replacing indexes of the same names.
+     * <p>the indexes are read in place rather than deserialized, so that a mapped file is read only as far as it is queried.
+     * they are read only, writing new names into them throws {@link UnsupportedOperationException} */
+    public void readBinary(final ByteBuffer byteBuffer) {
+        ByteBuffer buffer = byteBuffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+        if (buffer.remaining() < 8 || buffer.getInt() != BINARY_MAGIC || buffer.getInt() != BINARY_VERSION) {
+            throw new ReflectionsException("not a binary reflections index, or of another version");
+        }
+
+        int count = buffer.getInt();
+        int slotsLength = buffer.getInt();
+        IntBuffer nameOffsets = ints(buffer, count + 1);
+        IntBuffer slots = ints(buffer, slotsLength);
+        int namesLength = buffer.getInt();
+        ByteBuffer names = buffer.slice();
+        names.limit(namesLength);
+        buffer.position(buffer.position() + namesLength);
+        SymbolTable symbols = new MappedSymbolTable(names, nameOffsets, slots);
+
+        for (int indexes = buffer.getInt(); indexes > 0; indexes--) {
+            String indexName = symbols.name(buffer.getInt());
+            int keys = buffer.getInt();
+            int valuesLength = buffer.getInt();
+            IntBuffer keyIds = ints(buffer, keys);
+            IntBuffer offsets = ints(buffer, keys + 1);
+            IntBuffer values = ints(buffer, valuesLength);
+            storeMap.put(indexName, new SymbolMultimap(symbols, keyIds, offsets, values));
+        }
+    }
+
+    private static void writeInts(final DataOutputStream out, final IntBuffer ints) throws IOException {
+        for (int i = 0; i < ints.limit(); i++) {
+            out.writeInt(ints.get(i));
+        }
+    }
+
+    /** the given number of ints at the position of the given buffer, which is moved past them */
+    private static IntBuffer ints(final ByteBuffer buffer, final int count) {
+        ByteBuffer slice = buffer.slice();
+        slice.limit(4 * count);
+        buffer.position(buffer.position() + 4 * count);
+        return slice.asIntBuffer();
+    }
+
+    /** starts recording the writes of the calling thread into a recording store, until {@link #stopRecording()} */
+    void startRecording() {
+        recording.set(Lists.<String>newArrayList());
+    }
+
+    /** stops recording the writes of the calling thread, and returns them as index name, key and value triples */
+    List<String> stopRecording() {
+        List<String> writes = recording.get();
+        recording.remove();
+        return writes;
+    }
+
+    /** writes the given index name, key and value triples, as recorded by {@link #stopRecording()} */
+    void replay(final List<String> writes) {
+        for (int i = 0; i < writes.size(); i += 3) {
+            getOrCreate(writes.get(i)).put(writes.get(i + 1), writes.get(i + 2));
+        }
+    }
+
     /** merges given store into this */
     void merge(final Store outer) {
         if (outer != null) {
@@ -241,4 +430,86 @@ public class Store {
             return Sets.newHashSet();
         }
     };
+
+    /** a multimap recording the puts of a thread into its recording list, if any, as index name, key and value triples */
+    private static class RecordingMultimap extends ForwardingSetMultimap<String, String> {
+        private final String indexName;
+        private final SetMultimap<String, String> delegate;
+        private final ThreadLocal<List<String>> recording;
+
+        RecordingMultimap(final String indexName, final SetMultimap<String, String> delegate, final ThreadLocal<List<String>> recording) {
+            this.indexName = indexName;
+            this.delegate = delegate;
+            this.recording = recording;
+        }
+
+        @Override protected SetMultimap<String, String> delegate() {
+            return delegate;
+        }
+
+        @Override public boolean put(String key, String value) {
+            List<String> writes = recording.get();
+            if (writes != null) {
+                writes.add(indexName);
+                writes.add(key);
+                writes.add(value);
+            }
+            return delegate.put(key, value);
+        }
+    }
+
+    /** a multimap where puts go to a per thread shard without locking, and are merged into the delegate on {@link #flush()}.
+     * <p>as no monitor is held while putting, virtual thread workers are never pinned to their carrier thread.
+     * <p>a thread done writing releases its shard with {@link #releaseLocal()}, so that threads of a long lived pool do not hold on to it,
+     * the shard is dropped once flushed.
+     * <p>all other operations are done directly on the delegate, and should not be called while other threads are putting */
+    private static class ShardedMultimap extends ForwardingSetMultimap<String, String> {
+        private final SetMultimap<String, String> delegate;
+        private final Queue<Shard> shards = new ConcurrentLinkedQueue<Shard>();
+        private final ThreadLocal<Shard> localShard = new ThreadLocal<Shard>();
+
+        ShardedMultimap(final SetMultimap<String, String> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override protected SetMultimap<String, String> delegate() {
+            return delegate;
+        }
+
+        @Override public boolean put(String key, String value) {
+            Shard shard = localShard.get();
+            if (shard == null) {
+                shard = new Shard();
+                shards.add(shard);
+                localShard.set(shard);
+            }
+            return shard.multimap.put(key, value);
+        }
+
+        /** releases the shard of the calling thread, to be merged and dropped on the next flush */
+        void releaseLocal() {
+            Shard shard = localShard.get();
+            if (shard != null) {
+                shard.released = true;
+                localShard.remove();
+            }
+        }
+
+        void flush() {
+            for (Iterator<Shard> iterator = shards.iterator(); iterator.hasNext(); ) {
+                Shard shard = iterator.next();
+                delegate.putAll(shard.multimap);
+                if (shard.released) {
+                    iterator.remove();
+                } else {
+                    shard.multimap.clear(); //keep the shard, the thread that owns it might write again
+                }
+            }
+        }
+
+        private static class Shard {
+            final SetMultimap<String, String> multimap = newHashSetMultimap();
+            volatile boolean released;
+        }
+    }
 }
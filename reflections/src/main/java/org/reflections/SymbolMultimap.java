@@ -0,0 +1,563 @@
+package org.reflections;
+
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Multimap;
+import com.google.common.collect.Multiset;
+import com.google.common.collect.SetMultimap;
+
+import javax.annotation.Nullable;
+
+import java.nio.IntBuffer;
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * a set multimap of names, stored as int ids of a {@link SymbolTable} shared by all indexes of a {@link Store}
+ * <p>each key id holds the set of its value ids in an open addressing int array, found by the key id in an open addressing
+ * table of the keys of this multimap only, so that a name appearing in several indexes, as a key or as a value, is kept once
+ * in the symbol table, a key costs slots of this multimap's own table rather than of all names, and a value costs an int slot
+ * rather than a hash set entry.
+ * <p>the string based multimap api is a view over the ids. {@link #keys()} is a copy, all other views are live.
+ * <p>once written, the multimap can be frozen into a compressed sparse row layout: the sorted key ids of this multimap,
+ * by key the offset of its values, and the value ids of all keys in a single int array sorted by key,
+ * so that a key costs two ints and a value an int with no slack, whatever the number of names in the symbol table.
+ * keys and values are found by binary search. writing into a frozen multimap thaws it back.
+ * <p>the arrays of a frozen multimap might as well be read in place from a mapped file, see {@link Store#readBinary(java.nio.ByteBuffer)}.
+ * <p>not thread safe, see {@link Store}. reads do not modify it, frozen or not, so that it can be read concurrently once written
+ */
+class SymbolMultimap implements SetMultimap<String, String> {
+    private static final int[] NO_SLOTS = new int[0];
+    private static final IntSet[] EMPTY = new IntSet[0];
+
+    private final SymbolTable symbols;
+    private int[] keySlots = NO_SLOTS; //key ids + 1 by hash, 0 if empty
+    private IntSet[] sets = EMPTY; //the value ids of the key in the same slot
+    @Nullable private IntBuffer keyIds; //the sorted key ids, while frozen
+    @Nullable private IntBuffer offsets; //by key position, the offset of its values, while frozen
+    @Nullable private IntBuffer values; //the sorted value ids of each key, while frozen
+    private int keys;
+    private int size;
+
+    SymbolMultimap(final SymbolTable symbols) {
+        this.symbols = symbols;
+    }
+
+    /** a frozen multimap over the given arrays, see {@link #freeze()} */
+    SymbolMultimap(final SymbolTable symbols, final IntBuffer keyIds, final IntBuffer offsets, final IntBuffer values) {
+        this.symbols = symbols;
+        this.keyIds = keyIds;
+        this.offsets = offsets;
+        this.values = values;
+        this.keys = keyIds.limit();
+        this.size = values.limit();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(final Object key) {
+        return count(symbols.id(key)) != 0;
+    }
+
+    public boolean containsValue(final Object value) {
+        int id = symbols.id(value);
+        if (id == -1) return false;
+        for (int position = 0; position < keyPositions(); position++) {
+            if (contains(keyAt(position), id)) return true;
+        }
+        return false;
+    }
+
+    public boolean containsEntry(final Object key, final Object value) {
+        return contains(symbols.id(key), symbols.id(value));
+    }
+
+    public boolean put(final String key, final String value) {
+        int keyId = symbols.intern(key);
+        int valueId = symbols.intern(value);
+        thaw();
+
+        int slot = slot(keyId);
+        IntSet set = slot != -1 ? sets[slot] : addKey(keyId);
+        if (!set.add(valueId)) return false;
+        size++;
+        return true;
+    }
+
+    public boolean remove(final Object key, final Object value) {
+        if (!containsEntry(key, value)) return false;
+        thaw();
+        int slot = slot(symbols.id(key));
+        IntSet set = sets[slot];
+        set.remove(symbols.id(value));
+        size--;
+        if (set.size == 0) removeKey(slot);
+        return true;
+    }
+
+    public boolean putAll(final String key, final Iterable<? extends String> values) {
+        boolean changed = false;
+        for (String value : values) {
+            changed |= put(key, value);
+        }
+        return changed;
+    }
+
+    public boolean putAll(final Multimap<? extends String, ? extends String> multimap) {
+        boolean changed = false;
+        for (Map.Entry<? extends String, ? extends String> entry : multimap.entries()) {
+            changed |= put(entry.getKey(), entry.getValue());
+        }
+        return changed;
+    }
+
+    public Set<String> replaceValues(final String key, final Iterable<? extends String> values) {
+        Set<String> removed = removeAll(key);
+        putAll(key, values);
+        return removed;
+    }
+
+    public Set<String> removeAll(final Object key) {
+        int keyId = symbols.id(key);
+        if (count(keyId) == 0) return new HashSet<String>();
+        thaw();
+
+        int slot = slot(keyId);
+        IntSet set = sets[slot];
+        Set<String> removed = new HashSet<String>(names(set.ids()));
+        removeKey(slot);
+        size -= set.size;
+        return removed;
+    }
+
+    public void clear() {
+        keySlots = NO_SLOTS;
+        sets = EMPTY;
+        keyIds = null;
+        offsets = null;
+        values = null;
+        keys = 0;
+        size = 0;
+    }
+
+    /** a live view of the values of the given key */
+    public Set<String> get(final String key) {
+        return new AbstractSet<String>() {
+            public Iterator<String> iterator() {
+                int keyId = symbols.id(key);
+                return count(keyId) != 0 ? names(ids(keyId)).iterator() : Collections.<String>emptySet().iterator();
+            }
+
+            public int size() {
+                return count(symbols.id(key));
+            }
+
+            @Override public boolean contains(final Object o) {
+                return containsEntry(key, o);
+            }
+
+            @Override public boolean add(final String value) {
+                return put(key, value);
+            }
+
+            @Override public boolean remove(final Object o) {
+                return SymbolMultimap.this.remove(key, o);
+            }
+        };
+    }
+
+    public Set<String> keySet() {
+        return new AbstractSet<String>() {
+            public Iterator<String> iterator() {
+                return new AbstractIterator<String>() {
+                    int position = -1;
+
+                    protected String computeNext() {
+                        while (++position < keyPositions()) {
+                            int keyId = keyAt(position);
+                            if (keyId != -1) return symbols.name(keyId);
+                        }
+                        return endOfData();
+                    }
+                };
+            }
+
+            public int size() {
+                return keys;
+            }
+
+            @Override public boolean contains(final Object o) {
+                return containsKey(o);
+            }
+
+            @Override public boolean remove(final Object o) {
+                return !SymbolMultimap.this.removeAll(o).isEmpty();
+            }
+        };
+    }
+
+    public Multiset<String> keys() {
+        Multiset<String> result = HashMultiset.create();
+        for (String key : keySet()) {
+            result.add(key, count(symbols.id(key)));
+        }
+        return result;
+    }
+
+    public Collection<String> values() {
+        return new AbstractCollection<String>() {
+            public Iterator<String> iterator() {
+                final Iterator<Map.Entry<String, String>> entries = entries().iterator();
+                return new AbstractIterator<String>() {
+                    protected String computeNext() {
+                        return entries.hasNext() ? entries.next().getValue() : endOfData();
+                    }
+                };
+            }
+
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    public Set<Map.Entry<String, String>> entries() {
+        return new AbstractSet<Map.Entry<String, String>>() {
+            public Iterator<Map.Entry<String, String>> iterator() {
+                return new AbstractIterator<Map.Entry<String, String>>() {
+                    int position = -1;
+                    int keyId;
+                    int[] ids = new int[0];
+                    int index;
+
+                    protected Map.Entry<String, String> computeNext() {
+                        while (index == ids.length) {
+                            if (++position >= keyPositions()) return endOfData();
+                            keyId = keyAt(position);
+                            if (keyId != -1) {
+                                ids = ids(keyId);
+                                index = 0;
+                            }
+                        }
+                        return Maps.immutableEntry(symbols.name(keyId), symbols.name(ids[index++]));
+                    }
+                };
+            }
+
+            public int size() {
+                return size;
+            }
+
+            @Override public boolean contains(final Object o) {
+                return o instanceof Map.Entry && containsEntry(((Map.Entry) o).getKey(), ((Map.Entry) o).getValue());
+            }
+        };
+    }
+
+    public Map<String, Collection<String>> asMap() {
+        return new AbstractMap<String, Collection<String>>() {
+            public Set<Entry<String, Collection<String>>> entrySet() {
+                return new AbstractSet<Entry<String, Collection<String>>>() {
+                    public Iterator<Entry<String, Collection<String>>> iterator() {
+                        final Iterator<String> keys = SymbolMultimap.this.keySet().iterator();
+                        return new AbstractIterator<Entry<String, Collection<String>>>() {
+                            protected Entry<String, Collection<String>> computeNext() {
+                                if (!keys.hasNext()) return endOfData();
+                                String key = keys.next();
+                                return Maps.<String, Collection<String>>immutableEntry(key, SymbolMultimap.this.get(key));
+                            }
+                        };
+                    }
+
+                    public int size() {
+                        return keys;
+                    }
+                };
+            }
+
+            @Override public boolean containsKey(final Object key) {
+                return SymbolMultimap.this.containsKey(key);
+            }
+
+            @Override public Collection<String> get(final Object key) {
+                return SymbolMultimap.this.containsKey(key) ? SymbolMultimap.this.get((String) key) : null;
+            }
+
+            @Override public Collection<String> remove(final Object key) {
+                return SymbolMultimap.this.containsKey(key) ? removeAll(key) : null;
+            }
+        };
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        return o == this || o instanceof Multimap && asMap().equals(((Multimap) o).asMap());
+    }
+
+    @Override
+    public int hashCode() {
+        return asMap().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return asMap().toString();
+    }
+
+    /** compacts this multimap into sorted arrays, until written again */
+    void freeze() {
+        if (offsets != null) return;
+
+        int[] keyIds = new int[keys];
+        int position = 0;
+        for (int slotValue : keySlots) {
+            if (slotValue != 0) keyIds[position++] = slotValue - 1;
+        }
+        Arrays.sort(keyIds);
+
+        int[] offsets = new int[keys + 1];
+        int[] values = new int[size];
+        int offset = 0;
+        for (position = 0; position < keys; position++) {
+            offsets[position] = offset;
+            int[] ids = sets[slot(keyIds[position])].ids();
+            Arrays.sort(ids);
+            System.arraycopy(ids, 0, values, offset, ids.length);
+            offset += ids.length;
+        }
+        offsets[keys] = offset;
+
+        this.keyIds = IntBuffer.wrap(keyIds);
+        this.offsets = IntBuffer.wrap(offsets);
+        this.values = IntBuffer.wrap(values);
+        this.keySlots = NO_SLOTS;
+        this.sets = EMPTY;
+    }
+
+    boolean isFrozen() {
+        return offsets != null;
+    }
+
+    /** the arrays of this frozen multimap, the sorted key ids, by key the offset of its values, and the sorted value ids of each key */
+    IntBuffer getKeyIds() {
+        return keyIds.duplicate();
+    }
+
+    IntBuffer getOffsets() {
+        return offsets.duplicate();
+    }
+
+    IntBuffer getValues() {
+        return values.duplicate();
+    }
+
+    //
+    /** turns a frozen multimap back into sets, before writing into it */
+    private void thaw() {
+        if (offsets == null) return;
+
+        IntBuffer keyIds = this.keyIds, offsets = this.offsets, values = this.values;
+        this.keyIds = null;
+        this.offsets = null;
+        this.values = null;
+        this.keys = 0; //counted again as the keys are added back
+
+        for (int position = 0; position < keyIds.limit(); position++) {
+            IntSet set = addKey(keyIds.get(position));
+            for (int i = offsets.get(position); i < offsets.get(position + 1); i++) {
+                set.add(values.get(i));
+            }
+        }
+    }
+
+    /** the number of positions of keys, see {@link #keyAt(int)} */
+    private int keyPositions() {
+        return offsets != null ? keys : keySlots.length;
+    }
+
+    /** the key id at the given position, or -1 if there is no key at that position */
+    private int keyAt(final int position) {
+        return offsets != null ? keyIds.get(position) : keySlots[position] - 1;
+    }
+
+    /** the slot of the given key id in the table of keys, -1 if it is not a key. while not frozen */
+    private int slot(final int keyId) {
+        if (keyId == -1 || keySlots.length == 0) return -1;
+        int mask = keySlots.length - 1;
+        for (int slot = SymbolTable.hash(keyId) & mask; keySlots[slot] != 0; slot = (slot + 1) & mask) {
+            if (keySlots[slot] == keyId + 1) return slot;
+        }
+        return -1;
+    }
+
+    /** adds the given key id to the table of keys, growing it as needed, and returns its new empty set of values */
+    private IntSet addKey(final int keyId) {
+        if (4 * (keys + 1) > 3 * keySlots.length) {
+            int[] oldSlots = keySlots;
+            IntSet[] oldSets = sets;
+            keySlots = new int[Math.max(4, 2 * oldSlots.length)];
+            sets = new IntSet[keySlots.length];
+            for (int slot = 0; slot < oldSlots.length; slot++) {
+                if (oldSlots[slot] != 0) insertKey(oldSlots[slot], oldSets[slot]);
+            }
+        }
+        IntSet set = new IntSet();
+        insertKey(keyId + 1, set);
+        keys++;
+        return set;
+    }
+
+    private void insertKey(final int slotValue, final IntSet set) {
+        int mask = keySlots.length - 1;
+        int slot = SymbolTable.hash(slotValue - 1) & mask;
+        while (keySlots[slot] != 0) slot = (slot + 1) & mask;
+        keySlots[slot] = slotValue;
+        sets[slot] = set;
+    }
+
+    /** removes the key in the given slot, shifting back the keys probed past it so that no probe sequence is broken */
+    private void removeKey(final int slot) {
+        int mask = keySlots.length - 1;
+        int hole = slot;
+        for (int next = (hole + 1) & mask; keySlots[next] != 0; next = (next + 1) & mask) {
+            int home = SymbolTable.hash(keySlots[next] - 1) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) { //the hole is on the probe sequence of the key, from its home to it
+                keySlots[hole] = keySlots[next];
+                sets[hole] = sets[next];
+                hole = next;
+            }
+        }
+        keySlots[hole] = 0;
+        sets[hole] = null;
+        keys--;
+    }
+
+    /** the number of values of the given key id, 0 if it is not a key */
+    private int count(final int keyId) {
+        if (keyId == -1) return 0;
+        if (offsets != null) {
+            int position = indexOf(keyIds, 0, keys, keyId);
+            return position != -1 ? offsets.get(position + 1) - offsets.get(position) : 0;
+        }
+        int slot = slot(keyId);
+        return slot != -1 ? sets[slot].size : 0;
+    }
+
+    private boolean contains(final int keyId, final int valueId) {
+        if (valueId == -1 || count(keyId) == 0) return false;
+        if (offsets != null) {
+            int position = indexOf(keyIds, 0, keys, keyId);
+            return indexOf(values, offsets.get(position), offsets.get(position + 1), valueId) != -1;
+        }
+        return sets[slot(keyId)].contains(valueId);
+    }
+
+    /** the index of the given value in the given sorted range of ints, -1 if not found */
+    private static int indexOf(final IntBuffer ints, final int from, final int to, final int value) {
+        int low = from, high = to - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int id = ints.get(middle);
+            if (id < value) {
+                low = middle + 1;
+            } else if (id > value) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    /** the value ids of the given key id, which has values, as a copy */
+    private int[] ids(final int keyId) {
+        if (offsets == null) return sets[slot(keyId)].ids();
+
+        int position = indexOf(keyIds, 0, keys, keyId);
+        int[] ids = new int[offsets.get(position + 1) - offsets.get(position)];
+        for (int i = 0, offset = offsets.get(position); i < ids.length; i++) {
+            ids[i] = values.get(offset + i);
+        }
+        return ids;
+    }
+
+    private Collection<String> names(final int[] ids) {
+        String[] names = new String[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            names[i] = symbols.name(ids[i]);
+        }
+        return Arrays.asList(names);
+    }
+
+    /** a set of ids, ids + 1 in an open addressing array, 0 if empty. most sets hold a single id */
+    private static class IntSet {
+        int[] slots = new int[2];
+        int size;
+
+        int[] ids() {
+            int[] ids = new int[size];
+            int i = 0;
+            for (int slot : slots) {
+                if (slot != 0) ids[i++] = slot - 1;
+            }
+            return ids;
+        }
+
+        boolean contains(final int id) {
+            if (id == -1) return false;
+            int mask = slots.length - 1;
+            for (int slot = SymbolTable.hash(id) & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+                if (slots[slot] == id + 1) return true;
+            }
+            return false;
+        }
+
+        boolean add(final int id) {
+            if (contains(id)) return false;
+            if (4 * (size + 1) > 3 * slots.length) {
+                int[] old = slots;
+                slots = new int[2 * old.length];
+                for (int slot : old) {
+                    if (slot != 0) insert(slot);
+                }
+            }
+            insert(id + 1);
+            size++;
+            return true;
+        }
+
+        /** removes the given id, rebuilding the array so that no probe sequence is broken. removals are rare */
+        boolean remove(final int id) {
+            if (!contains(id)) return false;
+            int[] old = slots;
+            slots = new int[old.length];
+            for (int slot : old) {
+                if (slot != 0 && slot != id + 1) insert(slot);
+            }
+            size--;
+            return true;
+        }
+
+        private void insert(final int slotValue) {
+            int mask = slots.length - 1;
+            int slot = SymbolTable.hash(slotValue - 1) & mask;
+            while (slots[slot] != 0) slot = (slot + 1) & mask;
+            slots[slot] = slotValue;
+        }
+    }
+}
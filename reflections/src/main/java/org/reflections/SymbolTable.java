@@ -0,0 +1,93 @@
+package org.reflections;
+
+/**
+ * a table of symbols, interning each name stored in a {@link Store} into a dense int id
+ * <p>names are kept once, in an array by id, and found by their hash in an open addressing table of ids,
+ * so that a symbol costs an array slot and a table slot rather than a map entry and a boxed id.
+ * <p>not thread safe, symbols are interned by a single thread at a time, see {@link Store}
+ */
+class SymbolTable {
+    private String[] names;
+    private int[] slots; //ids + 1 by hash, 0 if empty
+    private int size;
+
+    SymbolTable() {
+        this(256);
+    }
+
+    /** a table with room for the given number of symbols, a power of two */
+    SymbolTable(final int capacity) {
+        names = new String[capacity];
+        slots = new int[Math.max(2, 2 * capacity)];
+    }
+
+    /** the id of the given name, interning it if not already */
+    int intern(final String name) {
+        int mask = slots.length - 1;
+        for (int slot = hash(name.hashCode()) & mask; ; slot = (slot + 1) & mask) {
+            int id = slots[slot] - 1;
+            if (id == -1) {
+                return add(name, slot);
+            } else if (names[id].equals(name)) {
+                return id;
+            }
+        }
+    }
+
+    /** the id of the given name, or -1 if not interned */
+    int id(final Object name) {
+        if (!(name instanceof String)) return -1;
+        int mask = slots.length - 1;
+        for (int slot = hash(name.hashCode()) & mask; ; slot = (slot + 1) & mask) {
+            int id = slots[slot] - 1;
+            if (id == -1 || names[id].equals(name)) return id;
+        }
+    }
+
+    /** the name of the given id */
+    String name(final int id) {
+        return names[id];
+    }
+
+    /** the number of symbols, ids are less than it */
+    int size() {
+        return size;
+    }
+
+    /** releases the slack of the array of names, once no more names are to be interned */
+    void trim() {
+        if (names.length > size) names = copyOf(names, size);
+    }
+
+    //
+    private int add(final String name, final int slot) {
+        int id = size++;
+        if (id == names.length) names = copyOf(names, Math.max(256, 2 * names.length));
+        names[id] = name;
+        slots[slot] = id + 1;
+
+        if (2 * size > slots.length) {
+            int[] old = slots;
+            slots = new int[2 * old.length];
+            int mask = slots.length - 1;
+            for (int i = 0; i < size; i++) {
+                int s = hash(names[i].hashCode()) & mask;
+                while (slots[s] != 0) s = (s + 1) & mask;
+                slots[s] = i + 1;
+            }
+        }
+        return id;
+    }
+
+    private static String[] copyOf(final String[] names, final int length) {
+        String[] copy = new String[length];
+        System.arraycopy(names, 0, copy, 0, Math.min(names.length, length));
+        return copy;
+    }
+
+    /** spreads the bits of the given hash, so that sequential ids and similar names spread over the table */
+    static int hash(final int h) {
+        int x = h * 0x9E3779B9;
+        return x ^ (x >>> 16);
+    }
+}
@@ -0,0 +1,503 @@
+package org.reflections.adapters;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.Lists;
+import com.google.common.io.ByteStreams;
+import org.reflections.ReflectionsException;
+import org.reflections.util.Utils;
+import org.reflections.vfs.BufferedFile;
+import org.reflections.vfs.Vfs;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * a metadata adapter decoding class files straight from their bytes, without javassist
+ * <p>only the constant pool and the class header are decoded when a class object is created. fields and methods are skipped over,
+ * and decoded only when a scanner asks for them, and so are the annotations. that fits the default scanners,
+ * {@link org.reflections.scanners.SubTypesScanner} and {@link org.reflections.scanners.TypeAnnotationsScanner},
+ * which never look at fields and methods. when only the {@link Part#TYPE} is required, fields and methods are not even skipped over.
+ * <p>returns the same names as {@link JavassistAdapter}, and can be used in its place, for example
+ * <pre>
+ *     new ConfigurationBuilder().setMetadataAdapter(new ClassFileAdapter())
+ * </pre>
+ */
+public class ClassFileAdapter implements PartialMetadataAdapter<ClassFileAdapter.ClassInfo, ClassFileAdapter.MemberInfo, ClassFileAdapter.MemberInfo> {
+    private static final String RUNTIME_VISIBLE_ANNOTATIONS = "RuntimeVisibleAnnotations";
+    private static final String RUNTIME_VISIBLE_PARAMETER_ANNOTATIONS = "RuntimeVisibleParameterAnnotations";
+
+    private static final Set<Part> ALL_PARTS = Collections.unmodifiableSet(EnumSet.allOf(Part.class));
+    private static final Set<Part> TYPE_ONLY = Collections.unmodifiableSet(EnumSet.of(Part.TYPE));
+
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_PRIVATE = 0x0002;
+    private static final int ACC_PROTECTED = 0x0004;
+
+    public List<MemberInfo> getFields(final ClassInfo cls) {
+        return cls.getFields();
+    }
+
+    public List<MemberInfo> getMethods(final ClassInfo cls) {
+        return cls.getMethods();
+    }
+
+    public String getMethodName(final MemberInfo method) {
+        return method.getName();
+    }
+
+    public List<String> getParameterNames(final MemberInfo method) {
+        String descriptor = method.getDescriptor();
+        return toTypeNames(descriptor, descriptor.indexOf('(') + 1, descriptor.lastIndexOf(')'));
+    }
+
+    public List<String> getClassAnnotationNames(final ClassInfo aClass) {
+        return aClass.getAnnotationNames(aClass.getAttributesOffset());
+    }
+
+    public List<String> getFieldAnnotationNames(final MemberInfo field) {
+        return field.cls.getAnnotationNames(field.attributesOffset);
+    }
+
+    public List<String> getMethodAnnotationNames(final MemberInfo method) {
+        return method.cls.getAnnotationNames(method.attributesOffset);
+    }
+
+    public List<String> getParameterAnnotationNames(final MemberInfo method, final int parameterIndex) {
+        return method.cls.getParameterAnnotationNames(method.attributesOffset, parameterIndex);
+    }
+
+    public String getReturnTypeName(final MemberInfo method) {
+        String descriptor = method.getDescriptor();
+        return toTypeNames(descriptor, descriptor.lastIndexOf(')') + 1, descriptor.length()).get(0);
+    }
+
+    public String getFieldName(final MemberInfo field) {
+        return field.getName();
+    }
+
+    /** creates the class object of the given file, decoding the bytes of a {@link BufferedFile} in place */
+    public ClassInfo getOfCreateClassObject(final Vfs.File file) {
+        return getOfCreateClassObject(file, ALL_PARTS);
+    }
+
+    /** creates the class object of the given file, decoding the bytes of a {@link BufferedFile} in place.
+     * <p>the fields, methods and attributes are skipped over up front only if a part other than the {@link Part#TYPE} is required, otherwise on first use */
+    public ClassInfo getOfCreateClassObject(final Vfs.File file, final Set<Part> parts) {
+        if (file instanceof BufferedFile) {
+            BufferedFile bufferedFile = (BufferedFile) file;
+            return createClassObject(bufferedFile.getBytes(), bufferedFile.getLength(), parts, file);
+        }
+
+        InputStream inputStream = null;
+        try {
+            inputStream = file.openInputStream();
+            byte[] bytes = ByteStreams.toByteArray(inputStream);
+            return createClassObject(bytes, bytes.length, parts, file);
+        } catch (IOException e) {
+            throw new ReflectionsException("could not create class file from " + file.getName(), e);
+        } finally {
+            Utils.close(inputStream);
+        }
+    }
+
+    protected ClassInfo createClassObject(final byte[] bytes, final int length, final Set<Part> parts, final Vfs.File file) {
+        try {
+            return new ClassInfo(bytes, length, !TYPE_ONLY.containsAll(parts));
+        } catch (IndexOutOfBoundsException e) {
+            throw new ReflectionsException("could not create class file from " + file.getName() + ", truncated class file", e);
+        }
+    }
+
+    public String getMethodModifier(final MemberInfo method) {
+        int accessFlags = method.getAccessFlags();
+        return (accessFlags & ACC_PRIVATE) != 0 ? "private" :
+               (accessFlags & ACC_PROTECTED) != 0 ? "protected" :
+               (accessFlags & ACC_PUBLIC) != 0 ? "public" : "";
+    }
+
+    public String getMethodKey(final ClassInfo cls, final MemberInfo method) {
+        return getMethodName(method) + "(" + Joiner.on(", ").join(getParameterNames(method)) + ")";
+    }
+
+    public String getMethodFullKey(final ClassInfo cls, final MemberInfo method) {
+        return getClassName(cls) + "." + getMethodKey(cls, method);
+    }
+
+    public boolean isPublic(final Object o) {
+        Integer accessFlags =
+                o instanceof ClassInfo ? ((ClassInfo) o).getAccessFlags() :
+                o instanceof MemberInfo ? ((MemberInfo) o).getAccessFlags() : null;
+
+        return accessFlags != null && (accessFlags & ACC_PUBLIC) != 0;
+    }
+
+    //
+    public String getClassName(final ClassInfo cls) {
+        return cls.getName();
+    }
+
+    public String getSuperclassName(final ClassInfo cls) {
+        return cls.getSuperclassName();
+    }
+
+    public List<String> getInterfacesNames(final ClassInfo cls) {
+        return cls.getInterfacesNames();
+    }
+
+    //
+    /** converts the field descriptors in the given range to type names, such as {@code int[]} or {@code java.lang.String} */
+    static List<String> toTypeNames(final String descriptors, final int from, final int to) {
+        List<String> result = Lists.newArrayList();
+
+        int i = from;
+        while (i < to) {
+            int dimensions = 0;
+            while (descriptors.charAt(i) == '[') {
+                dimensions++;
+                i++;
+            }
+
+            String typeName;
+            char c = descriptors.charAt(i);
+            if (c == 'L') {
+                int end = descriptors.indexOf(';', i);
+                typeName = descriptors.substring(i + 1, end).replace('/', '.');
+                i = end + 1;
+            } else {
+                typeName = toPrimitiveName(c);
+                i++;
+            }
+
+            if (dimensions == 0) {
+                result.add(typeName);
+            } else {
+                StringBuilder builder = new StringBuilder(typeName);
+                for (int d = 0; d < dimensions; d++) builder.append("[]");
+                result.add(builder.toString());
+            }
+        }
+
+        return result;
+    }
+
+    private static String toPrimitiveName(final char c) {
+        switch (c) {
+            case 'Z': return "boolean";
+            case 'B': return "byte";
+            case 'C': return "char";
+            case 'S': return "short";
+            case 'I': return "int";
+            case 'J': return "long";
+            case 'F': return "float";
+            case 'D': return "double";
+            case 'V': return "void";
+            default: throw new ReflectionsException("invalid descriptor type " + c);
+        }
+    }
+
+    /** a class file decoded up to its header. offsets of the fields, methods and attributes are kept, so that they can be decoded on demand */
+    public static class ClassInfo {
+        private final byte[] bytes;
+        private final int length;
+        private final int[] constants; //offset of each constant pool entry, past its tag
+        private final String[] utf8s; //decoded utf8 constants
+
+        private final int accessFlags;
+        private final String name;
+        private final String superclassName;
+        private final List<String> interfacesNames;
+
+        private final int fieldsOffset;
+        private int methodsOffset = -1; //skipped to on demand
+        private int attributesOffset = -1;
+        private List<MemberInfo> fields;
+        private List<MemberInfo> methods;
+
+        ClassInfo(final byte[] bytes, final int length, final boolean skipMembers) {
+            this.bytes = bytes;
+            this.length = length;
+            if (length < 10 || u4(0) != 0xCAFEBABE) throw new ReflectionsException("not a class file");
+
+            int count = u2(8);
+            constants = new int[count];
+            utf8s = new String[count];
+            int offset = 10;
+            for (int i = 1; i < count; i++) {
+                int tag = bytes[offset];
+                constants[i] = offset + 1;
+                switch (tag) {
+                    case 1: offset += 3 + u2(offset + 1); break; //Utf8
+                    case 3: case 4: case 9: case 10: case 11: case 12: case 17: case 18: offset += 5; break;
+                    case 5: case 6: offset += 9; i++; break; //Long and Double take two entries
+                    case 7: case 8: case 16: case 19: case 20: offset += 3; break;
+                    case 15: offset += 4; break; //MethodHandle
+                    default: throw new ReflectionsException("invalid constant pool tag " + tag);
+                }
+            }
+
+            accessFlags = u2(offset);
+            name = getClassConstant(u2(offset + 2));
+            superclassName = getClassConstant(u2(offset + 4));
+
+            int interfacesCount = u2(offset + 6);
+            offset += 8;
+            if (interfacesCount == 0) {
+                interfacesNames = Collections.emptyList();
+            } else {
+                interfacesNames = new ArrayList<String>(interfacesCount);
+                for (int i = 0; i < interfacesCount; i++, offset += 2) {
+                    interfacesNames.add(getClassConstant(u2(offset)));
+                }
+            }
+
+            fieldsOffset = offset;
+            if (skipMembers) getAttributesOffset();
+        }
+
+        public int getAccessFlags() {
+            return accessFlags;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /** the superclass name, null for java.lang.Object */
+        public String getSuperclassName() {
+            return superclassName;
+        }
+
+        public List<String> getInterfacesNames() {
+            return interfacesNames;
+        }
+
+        public List<MemberInfo> getFields() {
+            if (fields == null) fields = getMembers(fieldsOffset);
+            return fields;
+        }
+
+        public List<MemberInfo> getMethods() {
+            if (methods == null) methods = getMembers(getMethodsOffset());
+            return methods;
+        }
+
+        @Override public String toString() {
+            return name;
+        }
+
+        //
+        private int getMethodsOffset() {
+            if (methodsOffset == -1) methodsOffset = skipMembers(fieldsOffset);
+            return methodsOffset;
+        }
+
+        private int getAttributesOffset() {
+            if (attributesOffset == -1) {
+                int offset = skipMembers(getMethodsOffset());
+                if (skipAttributes(offset) > length) throw new ReflectionsException("truncated class file");
+                attributesOffset = offset;
+            }
+            return attributesOffset;
+        }
+
+        private List<MemberInfo> getMembers(int offset) {
+            int count = u2(offset);
+            offset += 2;
+            List<MemberInfo> members = new ArrayList<MemberInfo>(count);
+            for (int i = 0; i < count; i++) {
+                members.add(new MemberInfo(this, u2(offset), getUtf8(u2(offset + 2)), u2(offset + 4), offset + 6));
+                offset = skipAttributes(offset + 6);
+            }
+            return members;
+        }
+
+        private int skipMembers(int offset) {
+            int count = u2(offset);
+            offset += 2;
+            for (int i = 0; i < count; i++) {
+                offset = skipAttributes(offset + 6);
+            }
+            return offset;
+        }
+
+        private int skipAttributes(int offset) {
+            int count = u2(offset);
+            offset += 2;
+            for (int i = 0; i < count; i++) {
+                offset += 6 + u4(offset + 2);
+            }
+            return offset;
+        }
+
+        /** the offset of the content of the attribute of the given name, in the attributes at the given offset, or -1 if there is none */
+        private int findAttribute(int offset, final String attributeName) {
+            int count = u2(offset);
+            offset += 2;
+            for (int i = 0; i < count; i++) {
+                if (utf8Equals(u2(offset), attributeName)) return offset + 6;
+                offset += 6 + u4(offset + 2);
+            }
+            return -1;
+        }
+
+        private List<String> getAnnotationNames(final int attributesOffset) {
+            int offset = findAttribute(attributesOffset, RUNTIME_VISIBLE_ANNOTATIONS);
+            if (offset == -1) return new ArrayList<String>(0);
+
+            return getAnnotationNames(offset, new ArrayList<String>());
+        }
+
+        private List<String> getParameterAnnotationNames(final int attributesOffset, final int parameterIndex) {
+            int offset = findAttribute(attributesOffset, RUNTIME_VISIBLE_PARAMETER_ANNOTATIONS);
+            if (offset == -1 || parameterIndex >= u1(offset)) return new ArrayList<String>();
+
+            offset++;
+            for (int i = 0; i < parameterIndex; i++) {
+                offset = skipAnnotations(offset);
+            }
+            return getAnnotationNames(offset, new ArrayList<String>());
+        }
+
+        private List<String> getAnnotationNames(int offset, final List<String> result) {
+            int count = u2(offset);
+            offset += 2;
+            for (int i = 0; i < count; i++) {
+                String descriptor = getUtf8(u2(offset));
+                result.add(descriptor.substring(1, descriptor.length() - 1).replace('/', '.'));
+                offset = skipAnnotation(offset);
+            }
+            return result;
+        }
+
+        private int skipAnnotations(int offset) {
+            int count = u2(offset);
+            offset += 2;
+            for (int i = 0; i < count; i++) {
+                offset = skipAnnotation(offset);
+            }
+            return offset;
+        }
+
+        private int skipAnnotation(int offset) {
+            int pairs = u2(offset + 2);
+            offset += 4;
+            for (int i = 0; i < pairs; i++) {
+                offset = skipElementValue(offset + 2);
+            }
+            return offset;
+        }
+
+        private int skipElementValue(int offset) {
+            int tag = bytes[offset++];
+            switch (tag) {
+                case 'e': return offset + 4;
+                case '@': return skipAnnotation(offset);
+                case '[':
+                    int count = u2(offset);
+                    offset += 2;
+                    for (int i = 0; i < count; i++) {
+                        offset = skipElementValue(offset);
+                    }
+                    return offset;
+                default: return offset + 2; //a constant or a class
+            }
+        }
+
+        //
+        private String getClassConstant(final int index) {
+            return index == 0 ? null : getUtf8(u2(constants[index])).replace('/', '.');
+        }
+
+        private String getUtf8(final int index) {
+            String utf8 = utf8s[index];
+            if (utf8 == null) {
+                int offset = constants[index];
+                utf8 = utf8s[index] = decodeUtf8(offset + 2, u2(offset));
+            }
+            return utf8;
+        }
+
+        private boolean utf8Equals(final int index, final String ascii) {
+            int offset = constants[index];
+            int length = u2(offset);
+            if (length != ascii.length()) return false;
+            offset += 2;
+            for (int i = 0; i < length; i++) {
+                if (bytes[offset + i] != ascii.charAt(i)) return false;
+            }
+            return true;
+        }
+
+        /** decodes the modified utf8 of the class file format */
+        private String decodeUtf8(int offset, final int length) {
+            char[] chars = new char[length];
+            int count = 0;
+            int end = offset + length;
+            while (offset < end) {
+                int b = bytes[offset] & 0xff;
+                if (b < 0x80) {
+                    chars[count++] = (char) b;
+                    offset++;
+                } else if ((b & 0xe0) == 0xc0) {
+                    chars[count++] = (char) (((b & 0x1f) << 6) | (bytes[offset + 1] & 0x3f));
+                    offset += 2;
+                } else {
+                    chars[count++] = (char) (((b & 0x0f) << 12) | ((bytes[offset + 1] & 0x3f) << 6) | (bytes[offset + 2] & 0x3f));
+                    offset += 3;
+                }
+            }
+            return new String(chars, 0, count);
+        }
+
+        private int u1(final int offset) {
+            return bytes[offset] & 0xff;
+        }
+
+        private int u2(final int offset) {
+            return ((bytes[offset] & 0xff) << 8) | (bytes[offset + 1] & 0xff);
+        }
+
+        private int u4(final int offset) {
+            return ((bytes[offset] & 0xff) << 24) | ((bytes[offset + 1] & 0xff) << 16) | ((bytes[offset + 2] & 0xff) << 8) | (bytes[offset + 3] & 0xff);
+        }
+    }
+
+    /** a field or a method of a {@link ClassInfo}, its attributes are decoded on demand */
+    public static class MemberInfo {
+        private final ClassInfo cls;
+        private final int accessFlags;
+        private final String name;
+        private final int descriptorIndex;
+        private final int attributesOffset;
+
+        MemberInfo(final ClassInfo cls, final int accessFlags, final String name, final int descriptorIndex, final int attributesOffset) {
+            this.cls = cls;
+            this.accessFlags = accessFlags;
+            this.name = name;
+            this.descriptorIndex = descriptorIndex;
+            this.attributesOffset = attributesOffset;
+        }
+
+        public int getAccessFlags() {
+            return accessFlags;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getDescriptor() {
+            return cls.getUtf8(descriptorIndex);
+        }
+
+        /** same as javassist's, the name and the descriptor */
+        @Override public String toString() {
+            return name + " " + getDescriptor();
+        }
+    }
+}
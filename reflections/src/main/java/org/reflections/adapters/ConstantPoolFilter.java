@@ -0,0 +1,105 @@
+package org.reflections.adapters;
+
+import com.google.common.collect.Sets;
+
+import java.io.UnsupportedEncodingException;
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * a fast check of whether a class file might refer to any of some given names, by looking for them in the utf8 entries of its constant pool
+ * <p>the class file is neither parsed nor decoded, its constant pool is only walked through and compared bytewise, so that class files
+ * which do not refer to any of the names can be skipped before being parsed. for example, class files that are not annotated with given annotations
+ * <pre>
+ *     ConstantPoolFilter filter = ConstantPoolFilter.forAnnotations(asList("javax.persistence.Entity"));
+ *     if (filter.accepts(bytes, length)) ...
+ * </pre>
+ */
+public class ConstantPoolFilter {
+    private final byte[][] utf8s;
+    private final int minLength;
+    private final int maxLength;
+
+    /** a filter accepting class files having any of the given utf8 constants */
+    public ConstantPoolFilter(final Collection<String> utf8s) {
+        this.utf8s = new byte[utf8s.size()][];
+        int min = Integer.MAX_VALUE, max = 0, i = 0;
+        for (String utf8 : utf8s) {
+            byte[] bytes = toUtf8(utf8);
+            this.utf8s[i++] = bytes;
+            min = Math.min(min, bytes.length);
+            max = Math.max(max, bytes.length);
+        }
+        this.minLength = min;
+        this.maxLength = max;
+    }
+
+    /** a filter accepting class files which might be annotated with, or refer to, any of the given annotations.
+     * <p>looks for both the descriptor of each annotation, as found in annotations attributes, and its internal name,
+     * so that the annotation types themselves are accepted as well */
+    public static ConstantPoolFilter forAnnotations(final Collection<String> annotationTypeNames) {
+        Set<String> utf8s = Sets.newHashSet();
+        for (String annotationTypeName : annotationTypeNames) {
+            String internalName = annotationTypeName.replace('.', '/');
+            utf8s.add(internalName);
+            utf8s.add("L" + internalName + ";");
+        }
+        return new ConstantPoolFilter(utf8s);
+    }
+
+    /** true if the constant pool of the given class file has any of the utf8 constants of this filter.
+     * true as well if the bytes are not a class file, leaving it to the metadata adapter to fail on it */
+    public boolean accepts(final byte[] bytes, final int length) {
+        try {
+            if (length < 10 || u2(bytes, 0) != 0xCAFE || u2(bytes, 2) != 0xBABE) return true;
+
+            int count = u2(bytes, 8);
+            int offset = 10;
+            for (int i = 1; i < count; i++) {
+                int tag = bytes[offset];
+                switch (tag) {
+                    case 1: //Utf8
+                        int utf8Length = u2(bytes, offset + 1);
+                        if (utf8Length >= minLength && utf8Length <= maxLength && matches(bytes, offset + 3, utf8Length)) return true;
+                        offset += 3 + utf8Length;
+                        break;
+                    case 3: case 4: case 9: case 10: case 11: case 12: case 17: case 18: offset += 5; break;
+                    case 5: case 6: offset += 9; i++; break; //Long and Double take two entries
+                    case 7: case 8: case 16: case 19: case 20: offset += 3; break;
+                    case 15: offset += 4; break; //MethodHandle
+                    default: return true;
+                }
+            }
+            return false;
+        } catch (IndexOutOfBoundsException e) {
+            return true;
+        }
+    }
+
+    private boolean matches(final byte[] bytes, final int offset, final int length) {
+        for (byte[] utf8 : utf8s) {
+            if (utf8.length == length && equals(utf8, bytes, offset)) return true;
+        }
+        return false;
+    }
+
+    private static boolean equals(final byte[] utf8, final byte[] bytes, final int offset) {
+        //compared backwards, names of a package share their beginning
+        for (int i = utf8.length - 1; i >= 0; i--) {
+            if (utf8[i] != bytes[offset + i]) return false;
+        }
+        return true;
+    }
+
+    private static int u2(final byte[] bytes, final int offset) {
+        return ((bytes[offset] & 0xff) << 8) | (bytes[offset + 1] & 0xff);
+    }
+
+    private static byte[] toUtf8(final String s) {
+        try {
+            return s.getBytes("UTF-8"); //same as the modified utf8 of the class file format, for names without nul or supplementary characters
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -1,7 +1,6 @@
 package org.reflections.adapters;
 
 import com.google.common.base.Joiner;
-import com.google.common.cache.*;
 import com.google.common.collect.Lists;
 import javassist.bytecode.*;
 import javassist.bytecode.annotation.Annotation;
@@ -10,13 +9,13 @@ import org.reflections.util.Utils;
 import org.reflections.vfs.Vfs;
 
 import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.DataInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
 
 import static javassist.bytecode.AccessFlag.*;
 
@@ -25,13 +24,6 @@ import static javassist.bytecode.AccessFlag.*;
  */
 public class JavassistAdapter implements MetadataAdapter<ClassFile, FieldInfo, MethodInfo> {
 
-    private LoadingCache<Vfs.File, ClassFile> classFileCache = CacheBuilder.newBuilder().softValues().weakKeys().maximumSize(16).expireAfterWrite(500, TimeUnit.MILLISECONDS).
-            build(new CacheLoader<Vfs.File, ClassFile>() {
-                @Override public ClassFile load(Vfs.File key) throws Exception {
-                    return createClassObject(key);
-                }
-            });
-
     public List<FieldInfo> getFields(final ClassFile cls) {
         //noinspection unchecked
         return cls.getFields();
@@ -93,19 +85,18 @@ public class JavassistAdapter implements MetadataAdapter<ClassFile, FieldInfo, M
         return field.getName();
     }
 
+    /** creates the class object of the given file
+     * <p>no caching is done here, {@link org.reflections.Reflections} creates a class object once per file and passes it on to all scanners */
     public ClassFile getOfCreateClassObject(final Vfs.File file) {
-        try {
-            return classFileCache.get(file);
-        } catch (Exception e) {
-            return createClassObject(file);
-        }
+        return createClassObject(file);
     }
 
     protected ClassFile createClassObject(final Vfs.File file) {
         InputStream inputStream = null;
         try {
             inputStream = file.openInputStream();
-            DataInputStream dis = new DataInputStream(new BufferedInputStream(inputStream));
+            //files read into memory need no buffering
+            DataInputStream dis = new DataInputStream(inputStream instanceof ByteArrayInputStream ? inputStream : new BufferedInputStream(inputStream));
             return new ClassFile(dis);
         } catch (IOException e) {
             throw new ReflectionsException("could not create class file from " + file.getName(), e);
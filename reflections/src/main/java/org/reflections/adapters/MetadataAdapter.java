@@ -11,6 +11,20 @@ import java.util.List;
  */
 public interface MetadataAdapter<C,F,M> {
 
+    /** the parts of a class file that scanners read through the adapter, see {@link org.reflections.scanners.AbstractScanner#getRequirements()} */
+    enum Part {
+        /** the class name, superclass and interfaces */
+        TYPE,
+        /** the annotations of the class */
+        CLASS_ANNOTATIONS,
+        /** the fields and their annotations */
+        FIELDS,
+        /** the methods and their annotations */
+        METHODS,
+        /** the annotations of the methods parameters */
+        PARAMETER_ANNOTATIONS
+    }
+
     //
     String getClassName(final C cls);
 
@@ -39,6 +53,7 @@ public interface MetadataAdapter<C,F,M> {
 
     String getFieldName(final F field);
 
+    /** creates the class object of the given file. called once per scanned file, and shared between all scanners of that file */
     C getOfCreateClassObject(Vfs.File file) throws Exception;
 
     String getMethodModifier(M method);
@@ -0,0 +1,18 @@
+package org.reflections.adapters;
+
+import org.reflections.vfs.Vfs;
+
+import java.util.Set;
+
+/**
+ * a metadata adapter able to parse only some parts of a class file
+ * <p>{@link org.reflections.Reflections} creates the class object of a file through it with the union of the parts
+ * required by the scanners of the file, see {@link org.reflections.scanners.AbstractScanner#getRequirements()}.
+ * other adapters parse the whole class file
+ */
+public interface PartialMetadataAdapter<C,F,M> extends MetadataAdapter<C,F,M> {
+
+    /** creates the class object of the given file, where only the given parts of it would be read by the scanners,
+     * so that the other parts may be skipped */
+    C getOfCreateClassObject(Vfs.File file, Set<Part> parts) throws Exception;
+}
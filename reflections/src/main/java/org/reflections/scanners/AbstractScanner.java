@@ -2,12 +2,23 @@ package org.reflections.scanners;
 
 import com.google.common.base.Predicate;
 import com.google.common.base.Predicates;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Multimap;
 import org.reflections.Configuration;
 import org.reflections.ReflectionsException;
+import org.reflections.adapters.ConstantPoolFilter;
 import org.reflections.adapters.MetadataAdapter;
+import org.reflections.adapters.PartialMetadataAdapter;
+import org.reflections.util.FilterBuilder;
 import org.reflections.vfs.Vfs;
 
+import javax.annotation.Nullable;
+import java.lang.annotation.Annotation;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 /**
  *
  */
@@ -17,22 +28,66 @@ public abstract class AbstractScanner implements Scanner {
 	private Configuration configuration;
 	private Multimap<String, String> store;
 	private Predicate<String> resultFilter = Predicates.alwaysTrue(); //accept all by default
+    @Nullable private ConstantPoolFilter constantPoolFilter;
+    private final boolean sharesClassObject = !overridesScanFile(getClass());
 
     public boolean acceptsInput(String file) {
         return file.endsWith(".class"); //is a class file
     }
 
+    /** the parts of the class object this scanner reads, so that a {@link org.reflections.adapters.PartialMetadataAdapter},
+     * such as the {@link org.reflections.adapters.ClassFileAdapter}, can skip parsing the others. the {@link org.reflections.adapters.JavassistAdapter}
+     * parses the whole class file regardless. an empty set if the scanner does not use the class object at all.
+     * <p>all parts by default, scanners should override with the parts they actually read */
+    public Set<MetadataAdapter.Part> getRequirements() {
+        return EnumSet.allOf(MetadataAdapter.Part.class);
+    }
+
     public void scan(Vfs.File file) {
-        try {
-            final Object classObject = getMetadataAdapter().getOfCreateClassObject(file);
-            scan(classObject);
-        } catch (Exception e) {
-            throw new ReflectionsException("could not create class file from " + file.getName(), e);
+        scan(file, null);
+    }
+
+    /** scans the given file, reusing the given classObject if it was already created for this file by a previous scanner
+     * <p>returns the class object used, if any, so that it can be passed on to the next scanner of the same file.
+     * {@link org.reflections.Reflections} shares the class object of a file between scanners extending this class,
+     * unless they override {@link #scan(Vfs.File)}, see {@link #sharesClassObject()}.
+     * other implementations of {@link Scanner} are given the file only, and create their own */
+    public Object scan(Vfs.File file, @Nullable Object classObject) {
+        if (classObject == null) {
+            try {
+                classObject = createClassObject(file);
+            } catch (Exception e) {
+                throw new ReflectionsException("could not create class file from " + file.getName(), e);
+            }
         }
+        scan(classObject);
+        return classObject;
     }
 
     public abstract void scan(Object cls);
 
+    /** true if this scanner is given the class object shared by the scanners of a file, through {@link #scan(Vfs.File, Object)}.
+     * <p>false if a subclass overrides {@link #scan(Vfs.File)}, which is then called instead, as it always was */
+    public boolean sharesClassObject() {
+        return sharesClassObject;
+    }
+
+    private static boolean overridesScanFile(final Class<?> scannerClass) {
+        try {
+            return scannerClass.getMethod("scan", Vfs.File.class).getDeclaringClass() != AbstractScanner.class;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /** creates the class object of the given file, of the required parts only if the metadata adapter supports it */
+    protected Object createClassObject(final Vfs.File file) throws Exception {
+        MetadataAdapter adapter = getMetadataAdapter();
+        return adapter instanceof PartialMetadataAdapter ?
+                ((PartialMetadataAdapter) adapter).getOfCreateClassObject(file, getRequirements()) :
+                adapter.getOfCreateClassObject(file);
+    }
+
     //
     public Configuration getConfiguration() {
         return configuration;
@@ -62,11 +117,62 @@ public abstract class AbstractScanner implements Scanner {
         this.setResultFilter(filter); return this;
     }
 
+    /** describes this scanner along with its result filter and its options, so that an incremental scan state or a scan cache
+     * is not reused once they change. null if the result filter does not tell the names it accepts, see {@link FilterBuilder#describe(Predicate)}.
+     * <p>scanners having options of their own should describe them as well */
+    @Nullable public String describe() {
+        String resultFilter = FilterBuilder.describe(this.resultFilter);
+        return resultFilter != null ? getClass().getName() + "(" + resultFilter + ")" : null;
+    }
+
+    /** a pre-filter of the class files this scanner would find anything in, judging by their constant pool only,
+     * so that other class files can be skipped before being parsed. null if all class files should be scanned */
+    @Nullable public ConstantPoolFilter getConstantPoolFilter() {
+        return constantPoolFilter;
+    }
+
+    public void setConstantPoolFilter(@Nullable ConstantPoolFilter constantPoolFilter) {
+        this.constantPoolFilter = constantPoolFilter;
+    }
+
+    /** for the annotations scanners, filters the results by the given annotations, and skips class files that do not refer
+     * to any of them in their constant pool before parsing them, unless other scanners need them */
+    protected void filterByAnnotations(final List<String> annotations) {
+        FilterBuilder resultFilter = new FilterBuilder();
+        for (String annotation : annotations) {
+            resultFilter.include(FilterBuilder.literal(annotation));
+        }
+        setResultFilter(resultFilter);
+        setConstantPoolFilter(ConstantPoolFilter.forAnnotations(annotations));
+    }
+
+    protected static List<String> getNames(final Class<? extends Annotation>[] annotations) {
+        List<String> names = Lists.newArrayListWithCapacity(annotations.length);
+        for (Class<? extends Annotation> annotation : annotations) {
+            names.add(annotation.getName());
+        }
+        return names;
+    }
+
     //
     public boolean acceptResult(final String fqn) {
 		return fqn != null && resultFilter.apply(fqn);
 	}
 
+    /** puts into the store the entries of the given saved index of this scanner it would have stored itself, as told by {@link #acceptKey(String)} */
+    public void collect(final Multimap<String, String> savedIndex) {
+        for (Map.Entry<String, String> entry : savedIndex.entries()) {
+            if (acceptKey(entry.getKey())) {
+                getStore().put(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /** whether the given key of a saved index passes the result filter. by default the keys are the results themselves */
+    protected boolean acceptKey(final String key) {
+        return acceptResult(key);
+    }
+
 	protected MetadataAdapter getMetadataAdapter() {
 		return configuration.getMetadataAdapter();
 	}
@@ -1,17 +1,24 @@
 package org.reflections.scanners;
 
 import com.google.common.collect.Sets;
+import org.reflections.adapters.MetadataAdapter;
 
 import java.lang.reflect.Method;
 import java.util.Collection;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Set;
 
+import static org.reflections.adapters.MetadataAdapter.Part.*;
 import static org.reflections.util.Utils.getMethodFromDescriptor;
 
 /** scans for methods that take one class as an argument and returns another class */ 
 @SuppressWarnings({"unchecked"})
 public class ConvertersScanner extends AbstractScanner {
+    public Set<MetadataAdapter.Part> getRequirements() {
+        return EnumSet.of(TYPE, METHODS);
+    }
+
     public void scan(final Object cls) {
         List<Object> methods = getMetadataAdapter().getMethods(cls);
         for (Object method : methods) {
@@ -29,6 +36,11 @@ public class ConvertersScanner extends AbstractScanner {
         }
     }
 
+    @Override protected boolean acceptKey(final String key) {
+        int separator = key.indexOf(" to ");
+        return separator != -1 && (acceptResult(key.substring(0, separator)) || acceptResult(key.substring(separator + " to ".length())));
+    }
+
     public static String getConverterKey(String from, String to) {
         return from + " to " + to;
     }
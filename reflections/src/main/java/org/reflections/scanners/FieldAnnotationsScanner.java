@@ -1,10 +1,34 @@
 package org.reflections.scanners;
 
+import org.reflections.adapters.MetadataAdapter;
+
+import java.lang.annotation.Annotation;
+import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
+
+import static org.reflections.adapters.MetadataAdapter.Part.*;
 
 /** scans for field's annotations */
 @SuppressWarnings({"unchecked"})
 public class FieldAnnotationsScanner extends AbstractScanner {
+    public Set<MetadataAdapter.Part> getRequirements() {
+        return EnumSet.of(TYPE, FIELDS);
+    }
+
+    /** scans for the given annotations only, see {@link TypeAnnotationsScanner#filterByAnnotations(Class[])} */
+    public FieldAnnotationsScanner filterByAnnotations(final Class<? extends Annotation>... annotations) {
+        filterByAnnotations(getNames(annotations));
+        return this;
+    }
+
+    /** scans for the given annotations only, given by their fully qualified names */
+    public FieldAnnotationsScanner filterByAnnotations(final String... annotations) {
+        filterByAnnotations(Arrays.asList(annotations));
+        return this;
+    }
+
     public void scan(final Object cls) {
         final String className = getMetadataAdapter().getClassName(cls);
         List<Object> fields = getMetadataAdapter().getFields(cls);
@@ -1,12 +1,22 @@
 package org.reflections.scanners;
 
+import org.reflections.adapters.MetadataAdapter;
+
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
+
+import static org.reflections.adapters.MetadataAdapter.Part.*;
 
 /**
  *
  */
 @SuppressWarnings({"unchecked"})
 public class MethodParametersAnnotationsScanner extends AbstractScanner {
+    public Set<MetadataAdapter.Part> getRequirements() {
+        return EnumSet.of(TYPE, METHODS, PARAMETER_ANNOTATIONS);
+    }
+
     public void scan(final Object cls) {
         String className = getMetadataAdapter().getClassName(cls);
 
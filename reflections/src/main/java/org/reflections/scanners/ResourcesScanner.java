@@ -1,7 +1,11 @@
 package org.reflections.scanners;
 
+import org.reflections.adapters.MetadataAdapter;
 import org.reflections.vfs.Vfs;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 /** collects all resources that are not classes in a collection
  * <p>key: value - {web.xml: WEB-INF/web.xml} */
 public class ResourcesScanner extends AbstractScanner {
@@ -9,8 +13,13 @@ public class ResourcesScanner extends AbstractScanner {
         return !file.endsWith(".class"); //not a class
     }
 
-    public void scan(Vfs.File file) {
+    public Set<MetadataAdapter.Part> getRequirements() {
+        return EnumSet.noneOf(MetadataAdapter.Part.class);
+    }
+
+    public Object scan(Vfs.File file, Object classObject) {
         getStore().put(file.getName(), file.getRelativePath());
+        return classObject;
     }
 
     public void scan(Object cls) {
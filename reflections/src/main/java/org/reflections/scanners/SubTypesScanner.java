@@ -1,8 +1,13 @@
 package org.reflections.scanners;
 
+import org.reflections.adapters.MetadataAdapter;
 import org.reflections.util.FilterBuilder;
 
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
+
+import static org.reflections.adapters.MetadataAdapter.Part.*;
 
 /** scans for superclass and interfaces of a class, allowing a reverse lookup for subtypes */
 public class SubTypesScanner extends AbstractScanner {
@@ -11,6 +16,10 @@ public class SubTypesScanner extends AbstractScanner {
         filterResultsBy(new FilterBuilder().exclude(Object.class.getName())); //exclude direct Object subtypes by default
     }
 
+    public Set<MetadataAdapter.Part> getRequirements() {
+        return EnumSet.of(TYPE);
+    }
+
     @SuppressWarnings({"unchecked"})
     public void scan(final Object cls) {
 		String className = getMetadataAdapter().getClassName(cls);
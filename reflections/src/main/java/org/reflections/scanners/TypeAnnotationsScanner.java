@@ -1,11 +1,40 @@
 package org.reflections.scanners;
 
+import org.reflections.adapters.MetadataAdapter;
+
+import java.lang.annotation.Annotation;
 import java.lang.annotation.Inherited;
+import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
+
+import static org.reflections.adapters.MetadataAdapter.Part.*;
 
 /** scans for class's annotations, where @Retention(RetentionPolicy.RUNTIME) */
 @SuppressWarnings({"unchecked"})
 public class TypeAnnotationsScanner extends AbstractScanner {
+    public Set<MetadataAdapter.Part> getRequirements() {
+        return EnumSet.of(TYPE, CLASS_ANNOTATIONS);
+    }
+
+    /** scans for the given annotations only.
+     * <p>filters the results by the given annotations, and skips class files that do not refer to any of them in their constant pool
+     * before parsing them, unless other scanners need them. for example
+     * <pre>
+     *     new TypeAnnotationsScanner().filterByAnnotations(Entity.class, Embeddable.class)
+     * </pre> */
+    public TypeAnnotationsScanner filterByAnnotations(final Class<? extends Annotation>... annotations) {
+        filterByAnnotations(getNames(annotations));
+        return this;
+    }
+
+    /** scans for the given annotations only, given by their fully qualified names. see {@link #filterByAnnotations(Class[])} */
+    public TypeAnnotationsScanner filterByAnnotations(final String... annotations) {
+        filterByAnnotations(Arrays.asList(annotations));
+        return this;
+    }
+
     public void scan(final Object cls) {
 		final String className = getMetadataAdapter().getClassName(cls);
 
@@ -18,4 +47,8 @@ public class TypeAnnotationsScanner extends AbstractScanner {
         }
     }
 
+    @Override protected boolean acceptKey(final String key) {
+        return acceptResult(key) || key.equals(Inherited.class.getName());
+    }
+
 }
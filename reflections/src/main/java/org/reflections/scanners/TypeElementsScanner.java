@@ -1,5 +1,13 @@
 package org.reflections.scanners;
 
+import org.reflections.adapters.MetadataAdapter;
+
+import javax.annotation.Nullable;
+import java.util.EnumSet;
+import java.util.Set;
+
+import static org.reflections.adapters.MetadataAdapter.Part.*;
+
 /** scans fields and methods and stores fqn as key and elements as values */
 @SuppressWarnings({"unchecked"})
 public class TypeElementsScanner extends AbstractScanner {
@@ -7,6 +15,13 @@ public class TypeElementsScanner extends AbstractScanner {
     private boolean includeMethods = true;
     private boolean publicOnly = true;
 
+    public Set<MetadataAdapter.Part> getRequirements() {
+        Set<MetadataAdapter.Part> requirements = EnumSet.of(TYPE);
+        if (includeFields) requirements.add(FIELDS);
+        if (includeMethods) requirements.add(METHODS);
+        return requirements;
+    }
+
     public void scan(Object cls) {
         //avoid scanning JavaCodeSerializer outputs
         if (TypesScanner.isJavaCodeSerializer(getMetadataAdapter().getInterfacesNames(cls))) return;
@@ -29,6 +44,11 @@ public class TypeElementsScanner extends AbstractScanner {
         }
     }
 
+    @Nullable @Override public String describe() {
+        String description = super.describe();
+        return description != null ? description + "[includeFields=" + includeFields + ", includeMethods=" + includeMethods + ", publicOnly=" + publicOnly + "]" : null;
+    }
+
     //
     public TypeElementsScanner includeFields() { return includeFields(true); }
     public TypeElementsScanner includeFields(boolean include) { includeFields = include; return this; }
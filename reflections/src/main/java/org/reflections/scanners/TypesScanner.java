@@ -2,10 +2,15 @@ package org.reflections.scanners;
 
 import com.google.common.collect.Lists;
 import org.reflections.ReflectionsException;
+import org.reflections.adapters.MetadataAdapter;
 import org.reflections.serializers.JavaCodeSerializer;
 import org.reflections.vfs.Vfs;
 
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
+
+import static org.reflections.adapters.MetadataAdapter.Part.*;
 
 /** scans classes and stores fqn as key and full path as value */
 public class TypesScanner extends AbstractScanner {
@@ -13,14 +18,21 @@ public class TypesScanner extends AbstractScanner {
         return file.endsWith(".class") && !file.endsWith("package-info.class"); //classes only
     }
 
+    public Set<MetadataAdapter.Part> getRequirements() {
+        return EnumSet.of(TYPE);
+    }
+
     //duplicated from AbstractScanner
-    public void scan(Vfs.File file) {
-        try {
-            Object cls = getMetadataAdapter().getOfCreateClassObject(file);
-            scan(cls, file);
-        } catch (Exception e) {
-            throw new ReflectionsException("could not create class file from " + file.getName(), e);
+    public Object scan(Vfs.File file, Object classObject) {
+        if (classObject == null) {
+            try {
+                classObject = createClassObject(file);
+            } catch (Exception e) {
+                throw new ReflectionsException("could not create class file from " + file.getName(), e);
+            }
         }
+        scan(classObject, file);
+        return classObject;
     }
 
     private void scan(Object cls, Vfs.File file) {
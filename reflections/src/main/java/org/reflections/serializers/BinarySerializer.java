@@ -0,0 +1,112 @@
+package org.reflections.serializers;
+
+import com.google.common.collect.Multimap;
+import com.google.common.collect.Ordering;
+import com.google.common.io.ByteStreams;
+import org.reflections.Reflections;
+import org.reflections.ReflectionsException;
+import org.reflections.util.ConfigurationBuilder;
+import org.reflections.util.Utils;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Map;
+
+/** serialization of Reflections to a binary index, queried in place rather than deserialized
+ * <p>the store is saved as a symbol table of all names followed by each index as sorted int arrays,
+ * see {@link org.reflections.Store#writeBinary(java.io.OutputStream)}.
+ * <p>reading a file maps it into memory, so that reading takes no time regardless of the size of the index,
+ * queries read only the pages they need, and processes reading the same file share the os page cache. for example
+ * <pre>
+ *     new BinarySerializer().save(reflections, "META-INF/reflections/my-reflections.bin");
+ *     ...
+ *     Reflections reflections = new BinarySerializer().read(new File("META-INF/reflections/my-reflections.bin"));
+ * </pre>
+ * <p>the store of a read instance is read only, merge it into another instance to add metadata to it.
+ * <p>{@link #toString(Reflections)} is a readable dump of the indexes, rather than the binary format
+ * */
+public class BinarySerializer implements Serializer {
+
+    /** reads the input stream into memory, and the Reflections instance in place from it */
+    public Reflections read(InputStream inputStream) {
+        try {
+            return read(ByteBuffer.wrap(ByteStreams.toByteArray(inputStream)));
+        } catch (IOException e) {
+            throw new ReflectionsException("could not read input stream", e);
+        }
+    }
+
+    /** maps the given file into memory, and reads the Reflections instance in place from it */
+    public Reflections read(File file) {
+        RandomAccessFile randomAccessFile = null;
+        try {
+            randomAccessFile = new RandomAccessFile(file, "r");
+            FileChannel channel = randomAccessFile.getChannel();
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())); //the mapping outlives the channel
+        } catch (IOException e) {
+            throw new ReflectionsException("could not map file " + file, e);
+        } finally {
+            if (randomAccessFile != null) {
+                try { randomAccessFile.close(); } catch (IOException e) { /*ignore*/ }
+            }
+        }
+    }
+
+    /** reads the Reflections instance in place from the given buffer */
+    public Reflections read(ByteBuffer buffer) {
+        Reflections reflections = new Reflections(new ConfigurationBuilder().setScanners());
+        reflections.getStore().readBinary(buffer);
+        return reflections;
+    }
+
+    public File save(final Reflections reflections, final String filename) {
+        File file = Utils.prepareFile(filename);
+
+        OutputStream outputStream = null;
+        try {
+            outputStream = new FileOutputStream(file);
+            reflections.getStore().writeBinary(outputStream);
+            outputStream.close();
+            outputStream = null;
+        } catch (IOException e) {
+            throw new ReflectionsException("could not save to file " + filename, e);
+        } finally {
+            if (outputStream != null) {
+                try { outputStream.close(); } catch (IOException e) { /*ignore*/ }
+            }
+        }
+
+        return file;
+    }
+
+    /** a readable dump of the indexes saved in the binary format, as the binary format itself is not readable.
+     * <p>each index name is followed by its keys, each key by its values, indented and sorted, for example
+     * <pre>
+     * SubTypesScanner
+     *     org.reflections.TestModel$C1
+     *         org.reflections.TestModel$C2
+     *         org.reflections.TestModel$C3
+     * </pre> */
+    public String toString(final Reflections reflections) {
+        Map<String, Multimap<String, String>> storeMap = reflections.getStore().getStoreMap();
+
+        StringBuilder sb = new StringBuilder();
+        for (String indexName : Ordering.natural().sortedCopy(storeMap.keySet())) {
+            Multimap<String, String> index = storeMap.get(indexName);
+            sb.append(indexName).append("\n");
+            for (String key : Ordering.natural().sortedCopy(index.keySet())) {
+                sb.append("    ").append(key).append("\n");
+                for (String value : Ordering.natural().sortedCopy(index.get(key))) {
+                    sb.append("        ").append(value).append("\n");
+                }
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -52,7 +52,17 @@ public class JsonSerializer implements Serializer {
             gson = new GsonBuilder()
                     .registerTypeAdapter(Multimap.class, new com.google.gson.JsonSerializer<Multimap>() {
                         public JsonElement serialize(Multimap multimap, Type type, JsonSerializationContext jsonSerializationContext) {
-                            return jsonSerializationContext.serialize(multimap.asMap());
+                            //built explicitly, gson skips the anonymous view classes of the store's multimaps
+                            JsonObject jsonObject = new JsonObject();
+                            for (Object o : multimap.asMap().entrySet()) {
+                                Map.Entry<String, Collection<String>> entry = (Map.Entry<String, Collection<String>>) o;
+                                JsonArray jsonArray = new JsonArray();
+                                for (String value : entry.getValue()) {
+                                    jsonArray.add(new JsonPrimitive(value));
+                                }
+                                jsonObject.add(entry.getKey(), jsonArray);
+                            }
+                            return jsonObject;
                         }
                     })
                     .registerTypeAdapter(Multimap.class, new JsonDeserializer<Multimap>() {
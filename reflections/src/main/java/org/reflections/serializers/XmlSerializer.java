@@ -35,7 +35,7 @@ import java.util.Map;
 public class XmlSerializer implements Serializer {
 
     public Reflections read(InputStream inputStream) {
-        Reflections reflections = new Reflections(new ConfigurationBuilder());
+        Reflections reflections = new Reflections(new ConfigurationBuilder().setScanners()); //holding the indexes saved only
 
         Document document;
         try {
@@ -45,6 +45,7 @@ public class XmlSerializer implements Serializer {
         }
         for (Object e1 : document.getRootElement().elements()) {
             Element index = (Element) e1;
+            reflections.getStore().getOrCreate(index.getName()); //kept even if empty, telling the scanners the index was saved with
             for (Object e2 : index.elements()) {
                 Element entry = (Element) e2;
                 Element key = entry.element("key");
@@ -1,25 +1,47 @@
 package org.reflections.util;
 
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Multimap;
 import com.google.common.collect.Sets;
 import org.reflections.Reflections;
+import org.reflections.ReflectionsException;
+import org.reflections.vfs.NestedZipDir;
 import org.reflections.vfs.Vfs;
 
+import javax.annotation.Nullable;
 import javax.servlet.ServletContext;
 import java.io.File;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLClassLoader;
-import java.util.Enumeration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.jar.Attributes;
 import java.util.jar.JarFile;
 import java.util.jar.Manifest;
 
 /**
  * Some classpath convenient methods
+ * <p>the resources of a package, as found by {@link #forPackage(String, ClassLoader...)}, are cached per class loader,
+ * and released once the class loader is garbage collected. use {@link #clearCache()} after changing the resources of a class loader
  */
 public abstract class ClasspathHelper {
+    private static final LoadingCache<ClassLoader, ConcurrentMap<String, List<URL>>> resourcesCache =
+            CacheBuilder.newBuilder().weakKeys().build(new CacheLoader<ClassLoader, ConcurrentMap<String, List<URL>>>() {
+                public ConcurrentMap<String, List<URL>> load(ClassLoader classLoader) {
+                    return new ConcurrentHashMap<String, List<URL>>();
+                }
+            });
 
     /** returns {@code Thread.currentThread().getContextClassLoader()} */
     public static ClassLoader contextClassLoader() { return Thread.currentThread().getContextClassLoader(); }
@@ -50,9 +72,7 @@ public abstract class ClasspathHelper {
 
         for (ClassLoader classLoader : loaders) {
             try {
-                final Enumeration<URL> urls = classLoader.getResources(resourceName);
-                while (urls.hasMoreElements()) {
-                    final URL url = urls.nextElement();
+                for (URL url : getResources(classLoader, resourceName)) {
                     int index = url.toExternalForm().lastIndexOf(encodedResourceName);
                     if (index != -1) {
                         result.add(new URL(url.toExternalForm().substring(0, index)));
@@ -66,6 +86,82 @@ public abstract class ClasspathHelper {
         return result;
     }
 
+    /** the resources of the given name, using {@link ClassLoader#getResources(String)} once per class loader and name */
+    private static List<URL> getResources(final ClassLoader classLoader, final String resourceName) throws IOException {
+        ConcurrentMap<String, List<URL>> resources = resourcesCache.getUnchecked(classLoader);
+        List<URL> urls = resources.get(resourceName);
+        if (urls == null) {
+            urls = Collections.list(classLoader.getResources(resourceName));
+            resources.put(resourceName, urls);
+        }
+        return urls;
+    }
+
+    /** clears the resources cached per class loader */
+    public static void clearCache() {
+        resourcesCache.invalidateAll();
+    }
+
+    /** returns the given urls, each file or directory given once
+     * <p>urls of the same local file or directory are told by their canonical path, so that for example {@code file:/lib/some.jar}
+     * and {@code jar:file:/lib/some.jar!/} are the same. of the urls of the same file, the first given is returned */
+    public static Set<URL> canonicalUrls(final Collection<URL> urls) {
+        final Map<String, URL> result = Maps.newLinkedHashMap();
+
+        for (URL url : urls) {
+            File file = localFile(url);
+            String key = file != null ? file.getPath() : url.toExternalForm();
+            if (!result.containsKey(key)) {
+                result.put(key, url);
+            }
+        }
+
+        return Sets.newLinkedHashSet(result.values());
+    }
+
+    /** returns, for each directory url of the given urls, the paths of the other directory urls nested in it, relative to it
+     * <p>scanning a directory scans the directories nested in it as well, under longer names. these paths can be left out
+     * when scanning the outer directory, so that their files are scanned once, under the names relative to their own url */
+    public static Multimap<URL, String> nestedPaths(final Collection<URL> urls) {
+        final Multimap<URL, String> result = HashMultimap.create();
+
+        final Map<URL, String> directories = Maps.newHashMap();
+        for (URL url : urls) {
+            File file = localFile(url);
+            if (file != null && file.isDirectory()) {
+                directories.put(url, file.getPath() + File.separator);
+            }
+        }
+
+        for (Map.Entry<URL, String> outer : directories.entrySet()) {
+            for (Map.Entry<URL, String> inner : directories.entrySet()) {
+                String outerPath = outer.getValue(), innerPath = inner.getValue();
+                if (innerPath.length() > outerPath.length() && innerPath.startsWith(outerPath)) {
+                    String relativePath = innerPath.substring(outerPath.length(), innerPath.length() - 1);
+                    result.put(outer.getKey(), relativePath.replace(File.separatorChar, '/'));
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /** the canonical local file or directory of the given {@code file:} or {@code jar:file:} url, otherwise null */
+    @Nullable private static File localFile(final URL url) {
+        String externalForm = url.toExternalForm();
+        if (!externalForm.startsWith("file:") && !(externalForm.startsWith("jar:file:") && externalForm.endsWith("!/"))) return null;
+
+        String path = Vfs.normalizePath(url);
+        if (path.contains("!/")) return null; //a directory within a jar
+
+        File file = new File(path);
+        try {
+            return file.getCanonicalFile();
+        } catch (IOException e) {
+            return file.getAbsoluteFile();
+        }
+    }
+
     /** returns the url that contains the given class, using {@link ClassLoader#getResource(String)}
      * <p>if optional {@link ClassLoader}s are not specified, then either {@link #contextClassLoader()} or {@link #staticClassLoader()} are used for {@link ClassLoader#getResources(String)}
      * */
@@ -155,6 +251,49 @@ public abstract class ClasspathHelper {
         return null;
     }
 
+    /** returns the urls of the classes within the given archive, and within the archives nested in it, to be scanned in place
+     * by {@link org.reflections.vfs.NestedZipDir} without extracting them
+     * <p>that is BOOT-INF/classes and BOOT-INF/lib/*.jar of a spring boot fat jar, WEB-INF/classes and WEB-INF/lib/*.jar of a war,
+     * the jars and lib/*.jar of an ear along with the urls of its wars, and the archive itself if it has classes of its own.
+     * nested urls are of the form {@code jar:file:/app.jar!/BOOT-INF/lib/some.jar!/} */
+    public static Set<URL> forArchive(final URL url) {
+        String base = url.toExternalForm();
+        if (!base.startsWith("jar:")) base = "jar:" + base;
+        if (!base.endsWith("!/")) base = (base.endsWith("/") ? base.substring(0, base.length() - 1) : base) + "!/";
+
+        final Set<URL> result = Sets.newLinkedHashSet();
+        Vfs.Dir dir = new NestedZipDir(toUrl(base));
+        try {
+            for (Vfs.File file : dir.getFiles()) {
+                String path = file.getRelativePath();
+                if (path.startsWith("BOOT-INF/classes/")) {
+                    result.add(toUrl(base + "BOOT-INF/classes!/"));
+                } else if (path.startsWith("WEB-INF/classes/")) {
+                    result.add(toUrl(base + "WEB-INF/classes!/"));
+                } else if (path.matches("(BOOT-INF/lib/|WEB-INF/lib/|lib/)?[^/]+\\.jar")) {
+                    result.add(toUrl(base + path + "!/"));
+                } else if (path.matches("[^/]+\\.war")) {
+                    result.addAll(forArchive(toUrl(base + path + "!/")));
+                } else if (path.endsWith(".class") && !path.startsWith("BOOT-INF/") && !path.startsWith("WEB-INF/")) {
+                    result.add(url);
+                }
+            }
+        } finally {
+            dir.close();
+        }
+
+        if (result.isEmpty()) result.add(url);
+        return result;
+    }
+
+    private static URL toUrl(final String url) {
+        try {
+            return new URL(url);
+        } catch (MalformedURLException e) {
+            throw new ReflectionsException("could not create url " + url, e);
+        }
+    }
+
     /** return urls that are in the current class path.
      * attempts to load the jar manifest, if any, and adds to the result any dependencies it finds. */
     public static Set<URL> forManifest() {
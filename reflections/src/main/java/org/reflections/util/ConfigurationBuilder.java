@@ -4,7 +4,9 @@ import com.google.common.base.Predicate;
 import com.google.common.base.Predicates;
 import com.google.common.collect.ObjectArrays;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.reflections.Configuration;
+import org.reflections.Reflections;
 import org.reflections.adapters.JavassistAdapter;
 import org.reflections.adapters.MetadataAdapter;
 import org.reflections.scanners.Scanner;
@@ -13,11 +15,16 @@ import org.reflections.scanners.TypeAnnotationsScanner;
 import org.reflections.serializers.Serializer;
 import org.reflections.serializers.XmlSerializer;
 
+import java.io.File;
+import java.lang.reflect.Method;
 import java.net.URL;
 import java.util.Collection;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * a fluent builder for {@link org.reflections.Configuration}, to be used for constructing a {@link org.reflections.Reflections} instance
@@ -42,6 +49,10 @@ public class ConfigurationBuilder implements Configuration {
     private Predicate<String> inputsFilter = Predicates.alwaysTrue();
     private Serializer serializer;
     private ExecutorService executorService;
+    private int readerThreads;
+    /*@Nullable*/ private File stateFile;
+    /*@Nullable*/ private File cacheDir;
+    private boolean savedIndexes;
     /*@Nullable*/ private ClassLoader[] classLoaders = null;
 
     public ConfigurationBuilder() {
@@ -130,6 +141,12 @@ public class ConfigurationBuilder implements Configuration {
         return inputsFilter.apply(inputFqn);
     }
 
+    /** the fully qualified name filter used to filter types to be scanned, as a predicate.
+     * a {@link FilterBuilder} lets whole directories of names it does not accept be skipped */
+    public Predicate<String> getInputsFilter() {
+        return inputsFilter;
+    }
+
     /** sets the input filter for all resources to be scanned
      * <p> supply a {@link com.google.common.base.Predicate} or use the {@link FilterBuilder}*/
     public ConfigurationBuilder filterInputsBy(Predicate<String> inputsFilter) {
@@ -141,7 +158,9 @@ public class ConfigurationBuilder implements Configuration {
         return executorService;
     }
 
-    /** sets the executor service used for scanning. */
+    /** sets the executor service used for scanning.
+     * <p>the executor service is not shut down by {@link org.reflections.Reflections}, so it can be shared by many scans.
+     * see also {@link org.reflections.ScanSession} */
     public ConfigurationBuilder setExecutorService(ExecutorService executorService) {
         this.executorService = executorService;
         return this;
@@ -154,9 +173,104 @@ public class ConfigurationBuilder implements Configuration {
     }
 
     /** sets the executor service used for scanning to ThreadPoolExecutor with core size as the given availableProcessors parameter
-     * <p>default is ThreadPoolExecutor with a single core */
+     * <p>default is ThreadPoolExecutor with a single core
+     * <p>the executor uses daemon threads which end once idle, so that it need not be shut down after scanning */
     public ConfigurationBuilder useParallelExecutor(final int availableProcessors) {
-        setExecutorService(Executors.newFixedThreadPool(availableProcessors));
+        ThreadPoolExecutor executorService = new ThreadPoolExecutor(availableProcessors, availableProcessors,
+                1, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+                new ThreadFactoryBuilder().setDaemon(true).setNameFormat("org.reflections-scanner-%d").build());
+        executorService.allowCoreThreadTimeOut(true);
+        setExecutorService(executorService);
+        return this;
+    }
+
+    /** sets the executor service used for scanning to an executor starting a virtual thread for each task, available since Java 21.
+     * <p>workers blocking on reads would not hold a platform thread, so blocking reads overlap with parsing without sizing a pool.
+     * falls back to {@link #useParallelExecutor()} on older runtimes */
+    public ConfigurationBuilder useVirtualThreadExecutor() {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            setExecutorService((ExecutorService) method.invoke(null));
+        } catch (Exception e) {
+            if (Reflections.log != null) Reflections.log.warn("virtual threads are not available, using a ThreadPoolExecutor instead");
+            useParallelExecutor();
+        }
+        return this;
+    }
+
+    /** the number of workers reading files ahead of the scanning workers, when scanning with an executor service.
+     * if 0, each worker reads the files it scans */
+    public int getReaderThreads() {
+        return readerThreads;
+    }
+
+    /** sets a pipelined parallel scan, in which 2 reader workers read files ahead of the scanning workers.
+     * <p>see {@link #usePipelinedScan(int)} */
+    public ConfigurationBuilder usePipelinedScan() {
+        return usePipelinedScan(2);
+    }
+
+    /** sets a pipelined parallel scan, in which the given number of reader workers read files ahead of the scanning workers,
+     * so that blocking reads overlap with parsing and scanning.
+     * <p>readers run on the executor service alongside the scanning workers. if no executor service was set,
+     * uses a ThreadPoolExecutor with {@link java.lang.Runtime#availableProcessors()} threads plus a thread for each reader */
+    public ConfigurationBuilder usePipelinedScan(final int readerThreads) {
+        this.readerThreads = readerThreads;
+        if (executorService == null) {
+            useParallelExecutor(Runtime.getRuntime().availableProcessors() + readerThreads);
+        }
+        return this;
+    }
+
+    /** the file in which the state of an incremental scan is saved, or null for a full scan */
+    /*@Nullable*/ public File getStateFile() {
+        return stateFile;
+    }
+
+    /** sets an incremental scan, saving its state into the given file and rescanning only what changed since it was saved.
+     * <p>the state holds a fingerprint of each scanned archive, and of each scanned file: its size along with the crc of a zip entry
+     * or the modification time of a file, and the metadata the scanners stored for each file. on the next scan, the metadata of files
+     * whose fingerprint did not change is restored from the state, only files added or changed are scanned, and the metadata
+     * of files removed is dropped.
+     * <p>the state is dropped if the scanners, their result filters or their options changed, or the inputs filter. the state is kept only
+     * if all of them are described, such as a {@link FilterBuilder}, see {@link org.reflections.scanners.AbstractScanner#describe()},
+     * otherwise a full scan is done */
+    public ConfigurationBuilder useIncrementalScan(final File stateFile) {
+        this.stateFile = stateFile;
+        return this;
+    }
+
+    /** the directory in which the scan of each archive is cached, or null for no cache */
+    /*@Nullable*/ public File getCacheDir() {
+        return cacheDir;
+    }
+
+    /** sets a cache of the scan of archives, saving the metadata the scanners stored for each archive into a file of its own
+     * in the given directory, so that archives that do not change, such as third party jars, are scanned once and restored thereafter.
+     * <p>each file is keyed by the url of the archive, its size, modification time and a digest of its central directory, which holds
+     * the size and crc of each of its entries, along with the scanners, their result filters and options, and the inputs filter.
+     * archives are cached only if all of them are described, see {@link #useIncrementalScan(java.io.File)}. the directory can be shared by different configurations, and across applications using the same archives.
+     * <p>directories are not cached, they are scanned as usual, or incrementally if {@link #useIncrementalScan(java.io.File)} is set as well.
+     * stale files are not removed from the directory */
+    public ConfigurationBuilder useScanCache(final File cacheDir) {
+        this.cacheDir = cacheDir;
+        return this;
+    }
+
+    /** whether urls holding saved indexes compatible with the scanners are collected from them rather than scanned */
+    public boolean collectsSavedIndexes() {
+        return savedIndexes;
+    }
+
+    /** sets urls holding saved indexes to be collected rather than scanned, such as the {@code META-INF/reflections/*-reflections.xml}
+     * indexes saved by the reflections maven plugin, so that only the urls without ones are scanned.
+     * <p>a url is collected only if all of its indexes hold the indexes of all the scanners, otherwise it is scanned.
+     * indexes of other scanners are left out. saved indexes are read using {@link org.reflections.serializers.XmlSerializer}.
+     * <p>the entries of the indexes are filtered by the result filters of the scanners, see {@link org.reflections.scanners.AbstractScanner#collect(com.google.common.collect.Multimap)}.
+     * a url is collected only if the inputs filter accepts all of its files, otherwise it is scanned.
+     * <p>it is up to the indexes to be up to date, and saved with a result filter no narrower than the one of each scanner */
+    public ConfigurationBuilder useSavedIndexes() {
+        this.savedIndexes = true;
         return this;
     }
 
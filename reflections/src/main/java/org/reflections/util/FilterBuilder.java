@@ -2,10 +2,14 @@ package org.reflections.util;
 
 import com.google.common.base.Predicate;
 import com.google.common.base.Joiner;
+import com.google.common.base.Predicates;
 import com.google.common.collect.Lists;
 import org.reflections.ReflectionsException;
 
+import javax.annotation.Nullable;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
 import java.util.regex.Pattern;
 
@@ -16,9 +20,14 @@ import java.util.regex.Pattern;
  * Predicate<String> filter1 = FilterBuilder.parse("+.*, -java.*");
  * Predicate<String> filter2 = new FilterBuilder().include(".*").exclude("java.*");
  * </pre>
+ * <p>the chain is compiled once applied, and compiled again once changed. patterns of a literal prefix followed by {@code .*}, such as those
+ * of {@link #prefix(String)}, are compiled into a trie of their prefixes, matched all at once in a single pass over the name, and
+ * patterns of literal characters and dots alone are compared character by character. the regular expression is used for other patterns only.
+ * the compiled chain is immutable, a filter no longer changed can be applied by many threads
  */
 public class FilterBuilder implements Predicate<String> {
     private final List<Predicate<String>> chain;
+    private volatile CompiledChain compiled;
 
     public FilterBuilder() {chain = Lists.newArrayList();}
     private FilterBuilder(final Iterable<Predicate<String>> filters) {chain = Lists.newArrayList(filters);}
@@ -28,7 +37,7 @@ public class FilterBuilder implements Predicate<String> {
     /** exclude a regular expression*/
     public FilterBuilder exclude(final String regex) {add(new Exclude(regex)); return this;}
     /** add a Predicate to the chain of predicates*/
-    public FilterBuilder add(Predicate<String> filter) {chain.add(filter); return this;}
+    public FilterBuilder add(Predicate<String> filter) {chain.add(filter); compiled = null; return this;}
     /** include a package of a given class */
     public FilterBuilder includePackage(final Class<?> aClass) {return add(new Include(packageNameRegex(aClass)));}
     /** exclude a package of a given class */
@@ -38,9 +47,48 @@ public class FilterBuilder implements Predicate<String> {
 
     public static String prefix(String qualifiedName) {return qualifiedName.replace(".","\\.") + ".*";}
 
+    /** a regular expression matching the given name alone */
+    public static String literal(final String name) {
+        StringBuilder regex = new StringBuilder();
+        for (char c : name.toCharArray()) {
+            if (!Character.isLetterOrDigit(c)) regex.append('\\');
+            regex.append(c);
+        }
+        return regex.toString();
+    }
+
+    /**
+     * a description of the given filter telling the names it accepts, or null if it does not tell them
+     * <p>describes the patterns of a filter builder, and the predicates accepting all or no names. other predicates do not
+     * describe themselves, their {@code toString()} might be the same for different predicates, or differ for the same one
+     */
+    @Nullable public static String describe(final Predicate<String> filter) {
+        if (filter instanceof Matcher || filter == Predicates.<String>alwaysTrue() || filter == Predicates.<String>alwaysFalse()) {
+            return filter.toString();
+        }
+        if (!(filter instanceof FilterBuilder)) return null;
+
+        List<String> descriptions = Lists.newArrayList();
+        for (Predicate<String> predicate : ((FilterBuilder) filter).chain) {
+            String description = describe(predicate);
+            if (description == null) return null;
+            descriptions.add(description);
+        }
+        return "[" + Joiner.on(", ").join(descriptions) + "]";
+    }
+
     @Override public String toString() {return Joiner.on(", ").join(chain);}
 
     public boolean apply(String regex) {
+        CompiledChain compiled = this.compiled;
+        if (compiled == null) {
+            this.compiled = compiled = new CompiledChain(chain);
+        }
+        return compiled.apply(regex);
+    }
+
+    /** applies the chain filter by filter */
+    private boolean applyChain(String regex) {
         boolean accept = chain == null || chain.isEmpty() || chain.get(0) instanceof Exclude;
 
         if (chain != null) {
@@ -53,25 +101,228 @@ public class FilterBuilder implements Predicate<String> {
         return accept;
     }
 
+    /**
+     * false if no name starting with the given prefix is accepted, otherwise true, as some might be
+     * <p>tells from the regular expressions of the included and excluded patterns whether they match names with the prefix at all,
+     * so that directories of names none of which are accepted can be skipped. other predicates in the chain might accept any name
+     * <p>for example, a filter including {@code my\.package\..*} accepts no name starting with {@code other.}
+     */
+    public boolean mayAccept(final String prefix) {
+        return !Boolean.FALSE.equals(acceptsAll(prefix));
+    }
+
+    /** true if all names starting with the given prefix are accepted, false if none is, otherwise null */
+    private Boolean acceptsAll(final String prefix) {
+        Boolean accept = chain == null || chain.isEmpty() || chain.get(0) instanceof Exclude;
+
+        if (chain != null) {
+            for (Predicate<String> filter : chain) {
+                if (Boolean.TRUE.equals(accept) && filter instanceof Include) {continue;}
+                if (Boolean.FALSE.equals(accept) && filter instanceof Exclude) {continue;}
+
+                if (filter instanceof Include) {
+                    Boolean matches = ((Include) filter).matchesAll(prefix);
+                    accept = Boolean.FALSE.equals(accept) || Boolean.TRUE.equals(matches) ? matches : null;
+                } else if (filter instanceof Exclude) {
+                    Boolean matches = ((Exclude) filter).matchesAll(prefix);
+                    accept = matches == null ? null : Boolean.TRUE.equals(matches) ? Boolean.FALSE : accept;
+                } else if (filter instanceof FilterBuilder && !(filter instanceof Matcher)) {
+                    accept = ((FilterBuilder) filter).acceptsAll(prefix);
+                } else {
+                    accept = null;
+                }
+            }
+        }
+        return accept;
+    }
+
     public abstract static class Matcher extends FilterBuilder {
         final Pattern pattern;
-        public Matcher(final String regex) {pattern = Pattern.compile(regex);}
+        /** the literal beginning of the pattern, and whether it is followed by .* alone */
+        private final String literal;
+        private final boolean literalThenAny;
+        /** the characters of a pattern of literal characters and dots alone, and the positions of the dots, otherwise null */
+        private final String template;
+        private final BitSet dots = new BitSet();
+
+        public Matcher(final String regex) {
+            pattern = Pattern.compile(regex);
+
+            //the simple beginning of the pattern, of literal characters and dots, neither optional nor repeated
+            StringBuilder chars = new StringBuilder();
+            int i = 0, literalLength = -1, literalEnd = 0;
+            boolean alternation = regex.indexOf('|') != -1;
+            if (!alternation) {
+                while (i < regex.length()) {
+                    char c = regex.charAt(i);
+                    int next = i + 1;
+                    boolean dot = false;
+                    if (c == '\\' && next < regex.length() && !Character.isLetterOrDigit(regex.charAt(next))) {
+                        c = regex.charAt(next++);
+                    } else if (c == '.') {
+                        dot = true;
+                    } else if ("[]{}()*+?^$\\".indexOf(c) != -1) {
+                        break;
+                    }
+                    if (next < regex.length() && "?*+{".indexOf(regex.charAt(next)) != -1) break; //an optional or repeated character
+
+                    if (dot) {
+                        if (literalLength == -1) { literalLength = chars.length(); literalEnd = i; }
+                        dots.set(chars.length());
+                    }
+                    chars.append(c);
+                    i = next;
+                }
+            }
+            if (literalLength == -1) { literalLength = chars.length(); literalEnd = i; }
+
+            this.literal = chars.substring(0, literalLength);
+            this.literalThenAny = !alternation && regex.substring(literalEnd).equals(".*");
+            this.template = !alternation && i == regex.length() ? chars.toString() : null;
+        }
+
         @Override public abstract boolean apply(String regex);
         @Override public String toString() {return pattern.pattern();}
+
+        /** whether the pattern matches the given name, compared without the regular expression where the pattern is simple enough */
+        boolean matches(final String name) {
+            if (literalThenAny) {
+                return name.startsWith(literal) && anyChars(name, literal.length());
+            } else if (template != null) {
+                if (name.length() != template.length()) return false;
+                for (int i = 0; i < name.length(); i++) {
+                    char c = name.charAt(i);
+                    if (dots.get(i) ? isLineTerminator(c) : c != template.charAt(i)) return false;
+                }
+                return true;
+            } else {
+                return pattern.matcher(name).matches();
+            }
+        }
+
+        /** true if the pattern matches all names starting with the given prefix, false if it matches none, otherwise null */
+        Boolean matchesAll(final String prefix) {
+            if (prefix.startsWith(literal)) return literalThenAny ? Boolean.TRUE : null;
+            return literal.startsWith(prefix) ? null : Boolean.FALSE;
+        }
     }
 
     public static class Include extends Matcher {
         public Include(final String patternString) {super(patternString);}
-        @Override public boolean apply(final String regex) {return pattern.matcher(regex).matches();}
+        @Override public boolean apply(final String regex) {return matches(regex);}
         @Override public String toString() {return "+" + super.toString();}
     }
 
     public static class Exclude extends Matcher {
         public Exclude(final String patternString) {super(patternString);}
-        @Override public boolean apply(final String regex) {return !pattern.matcher(regex).matches();}
+        @Override public boolean apply(final String regex) {return !matches(regex);}
         @Override public String toString() {return "-" + pattern.pattern();}
     }
 
+    /**
+     * the chain compiled into a single matcher
+     * <p>each name is accepted or not by the last filter in the chain matching it, an include or an exclude, or by the last predicate
+     * other than a pattern, otherwise by the first filter being an exclude. so the prefix patterns are compiled into a trie, telling
+     * the last of them matching a name in a single pass over it, and the other filters are tried only if they come after it in the chain.
+     */
+    private static final class CompiledChain {
+        private final List<Predicate<String>> chain;
+        private final boolean accept;
+        private final Node trie = new Node();
+        private final int[] others; //the indices of the filters not in the trie
+
+        CompiledChain(final List<Predicate<String>> filters) {
+            chain = Lists.newArrayList(filters);
+            accept = chain.isEmpty() || chain.get(0) instanceof Exclude;
+
+            List<Integer> others = Lists.newArrayList();
+            for (int i = 0; i < chain.size(); i++) {
+                Predicate<String> filter = chain.get(i);
+                if ((filter instanceof Include || filter instanceof Exclude) && ((Matcher) filter).literalThenAny) {
+                    trie.add(((Matcher) filter).literal).last = i;
+                } else {
+                    others.add(i);
+                }
+            }
+            this.others = new int[others.size()];
+            for (int i = 0; i < this.others.length; i++) {
+                this.others[i] = others.get(i);
+            }
+        }
+
+        boolean apply(final String name) {
+            int last = -1;
+            Node node = trie;
+            for (int i = 0; node != null; node = i < name.length() ? node.child(name.charAt(i++)) : null) {
+                if (node.last > last) {
+                    if (!anyChars(name, i)) return new FilterBuilder(chain).applyChain(name); //prefix patterns do not match names of several lines
+                    last = node.last;
+                }
+            }
+
+            for (int i = others.length - 1; i >= 0 && others[i] > last; i--) {
+                Predicate<String> filter = chain.get(others[i]);
+                if (filter instanceof Include) {
+                    if (((Include) filter).matches(name)) return true;
+                } else if (filter instanceof Exclude) {
+                    if (((Exclude) filter).matches(name)) return false;
+                } else {
+                    return filter.apply(name);
+                }
+            }
+
+            return last != -1 ? chain.get(last) instanceof Include : accept;
+        }
+    }
+
+    /** a node of a trie of literal prefixes, children are kept sorted by their character */
+    private static final class Node {
+        private char[] chars = new char[0];
+        private Node[] children = new Node[0];
+        /** the index of the last filter whose prefix ends at this node, or -1 */
+        int last = -1;
+
+        Node child(final char c) {
+            int i = Arrays.binarySearch(chars, c);
+            return i >= 0 ? children[i] : null;
+        }
+
+        Node add(final String prefix) {
+            Node node = this;
+            for (int i = 0; i < prefix.length(); i++) {
+                char c = prefix.charAt(i);
+                Node child = node.child(c);
+                if (child == null) {
+                    int insert = -Arrays.binarySearch(node.chars, c) - 1;
+                    char[] chars = new char[node.chars.length + 1];
+                    Node[] children = new Node[chars.length];
+                    System.arraycopy(node.chars, 0, chars, 0, insert);
+                    System.arraycopy(node.children, 0, children, 0, insert);
+                    System.arraycopy(node.chars, insert, chars, insert + 1, node.chars.length - insert);
+                    System.arraycopy(node.children, insert, children, insert + 1, node.chars.length - insert);
+                    chars[insert] = c;
+                    children[insert] = child = new Node();
+                    node.chars = chars;
+                    node.children = children;
+                }
+                node = child;
+            }
+            return node;
+        }
+    }
+
+    /** whether the characters of the given name from the given index on are matched by dots, all but line terminators */
+    private static boolean anyChars(final String name, final int from) {
+        for (int i = from; i < name.length(); i++) {
+            if (isLineTerminator(name.charAt(i))) return false;
+        }
+        return true;
+    }
+
+    private static boolean isLineTerminator(final char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
     /**
      * parses a string representation of include exclude filter
      * <p>the given includeExcludeString is a comma separated list of patterns, each starts with either + or - to indicate include/exclude resp.
@@ -0,0 +1,79 @@
+package org.reflections.vfs;
+
+import com.google.common.io.ByteStreams;
+import org.reflections.util.Utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/** an implementation of {@link org.reflections.vfs.Vfs.File} whose content was already read into memory, delegating everything else to the original file */
+public class BufferedFile implements Vfs.File {
+    private final Vfs.File file;
+    private final byte[] bytes;
+    private final int length;
+    private final ReadBuffer buffer;
+
+    public BufferedFile(final Vfs.File file, final byte[] bytes, final int length) {
+        this(file, bytes, length, null);
+    }
+
+    BufferedFile(final Vfs.File file, final byte[] bytes, final int length, final ReadBuffer buffer) {
+        this.file = file;
+        this.bytes = bytes;
+        this.length = length;
+        this.buffer = buffer;
+    }
+
+    /** reads the content of the given file into memory */
+    public static BufferedFile read(final Vfs.File file) throws IOException {
+        InputStream inputStream = null;
+        try {
+            inputStream = file.openInputStream();
+            byte[] bytes = ByteStreams.toByteArray(inputStream);
+            return new BufferedFile(file, bytes, bytes.length);
+        } finally {
+            Utils.close(inputStream);
+        }
+    }
+
+    public String getName() {
+        return file.getName();
+    }
+
+    public String getRelativePath() {
+        return file.getRelativePath();
+    }
+
+    public String getFullPath() {
+        return file.getFullPath();
+    }
+
+    public InputStream openInputStream() {
+        return new ByteArrayInputStream(bytes, 0, length);
+    }
+
+    /** the content of this file, valid up to {@link #getLength()} */
+    public byte[] getBytes() {
+        return bytes;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    /** the reusable buffer this file was read into, valid until the next read into it, or null if the file has a buffer of its own */
+    public ReadBuffer getBuffer() {
+        return buffer;
+    }
+
+    /** the original file */
+    public Vfs.File getFile() {
+        return file;
+    }
+
+    @Override
+    public String toString() {
+        return file.toString();
+    }
+}
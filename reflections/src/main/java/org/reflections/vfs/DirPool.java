@@ -0,0 +1,155 @@
+package org.reflections.vfs;
+
+import com.google.common.collect.Lists;
+import org.reflections.ReflectionsException;
+
+import java.net.URL;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.reflections.Reflections.log;
+
+/**
+ * a pool of open {@link org.reflections.vfs.Vfs.Dir}s by url, so that archives are opened once and reused across scans
+ * <p>a dir is acquired for a url, opening it if not pooled already, and released once its files were read.
+ * released dirs are kept open, up to the given number of them, the least recently used of the others are closed.
+ * dirs in use are never closed, and are closed on their release if they should have been.
+ * <p>closing the pool closes all of its dirs, for example
+ * <pre>
+ *     DirPool dirPool = new DirPool();
+ *     try {
+ *         Vfs.Dir dir = dirPool.acquire(url);
+ *         try {
+ *             ... //read the files of the dir
+ *         } finally {
+ *             dirPool.release(dir);
+ *         }
+ *     } finally {
+ *         dirPool.close();
+ *     }
+ * </pre>
+ */
+public class DirPool {
+    /** the default number of released dirs kept open */
+    public static final int DEFAULT_MAX_IDLE = 64;
+
+    private final int maxIdle;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true); //by external form, in access order
+    private final Map<Vfs.Dir, Entry> inUse = new IdentityHashMap<Vfs.Dir, Entry>();
+    private int idle;
+    private boolean closed;
+
+    public DirPool() {
+        this(DEFAULT_MAX_IDLE);
+    }
+
+    /** a pool keeping at most the given number of released dirs open */
+    public DirPool(final int maxIdle) {
+        this.maxIdle = maxIdle;
+    }
+
+    /** the dir of the given url, opened using {@link Vfs#fromURL(java.net.URL)} unless pooled already. to be released once its files were read */
+    public Vfs.Dir acquire(final URL url) {
+        synchronized (this) {
+            Entry entry = acquireEntry(url);
+            if (entry != null) return entry.dir;
+        }
+
+        Vfs.Dir dir = Vfs.fromURL(url); //opened outside of the lock, since opening might take a while
+        Entry entry;
+        synchronized (this) {
+            if (closed) {
+                close(dir);
+                throw new ReflectionsException("dir pool is closed");
+            }
+            entry = acquireEntry(url);
+            if (entry == null) {
+                entry = new Entry(dir);
+                entry.references = 1;
+                entries.put(url.toExternalForm(), entry);
+                inUse.put(dir, entry);
+                return dir;
+            }
+        }
+        close(dir); //opened concurrently by another thread, whose dir is used instead
+        return entry.dir;
+    }
+
+    /** releases the given dir, acquired from this pool, closing it or other released dirs if more than allowed are open */
+    public void release(final Vfs.Dir dir) {
+        List<Vfs.Dir> evicted;
+        synchronized (this) {
+            Entry entry = inUse.get(dir);
+            if (entry == null) throw new ReflectionsException("dir was not acquired from this pool " + dir);
+            if (--entry.references > 0) return;
+
+            inUse.remove(dir);
+            idle++;
+            evicted = evict(closed ? 0 : maxIdle);
+        }
+        close(evicted);
+    }
+
+    /** closes the released dirs of this pool, the dirs in use are closed on their release. no dir can be acquired from a closed pool */
+    public void close() {
+        List<Vfs.Dir> evicted;
+        synchronized (this) {
+            closed = true;
+            evicted = evict(0);
+        }
+        close(evicted);
+    }
+
+    //
+    /** the pooled entry of the given url, if any, acquired */
+    private Entry acquireEntry(final URL url) {
+        if (closed) throw new ReflectionsException("dir pool is closed");
+
+        Entry entry = entries.get(url.toExternalForm());
+        if (entry != null && entry.references++ == 0) {
+            idle--;
+            inUse.put(entry.dir, entry);
+        }
+        return entry;
+    }
+
+    /** removes the least recently used released dirs, so that at most the given number of them remain */
+    private List<Vfs.Dir> evict(final int maxIdle) {
+        List<Vfs.Dir> evicted = Lists.newArrayList();
+        for (Iterator<Entry> iterator = entries.values().iterator(); idle > maxIdle && iterator.hasNext(); ) {
+            Entry entry = iterator.next();
+            if (entry.references == 0) {
+                iterator.remove();
+                idle--;
+                evicted.add(entry.dir);
+            }
+        }
+        return evicted;
+    }
+
+    private static void close(final List<Vfs.Dir> dirs) {
+        for (Vfs.Dir dir : dirs) {
+            close(dir);
+        }
+    }
+
+    private static void close(final Vfs.Dir dir) {
+        try {
+            dir.close();
+        } catch (Exception e) {
+            if (log != null) log.warn("could not close dir " + dir, e);
+        }
+    }
+
+    private static class Entry {
+        final Vfs.Dir dir;
+        int references;
+
+        Entry(final Vfs.Dir dir) {
+            this.dir = dir;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package org.reflections.vfs;
+
+/**
+ * a fingerprint of the content of a file, telling whether it changed since it was last seen
+ * <p>that is its size along with the crc of a zip entry, as told by the central directory without reading the entry,
+ * or along with the modification time of a file or an archive
+ */
+public class Fingerprint {
+    private final long size;
+    private final long stamp;
+
+    public Fingerprint(final long size, final long stamp) {
+        this.size = size;
+        this.stamp = stamp;
+    }
+
+    /** the fingerprint of the given file, or null if not known, in which case it should be taken as changed */
+    public static Fingerprint of(final Vfs.File file) {
+        if (file instanceof MappedZipFile) {
+            return new Fingerprint(((MappedZipFile) file).getSize(), ((MappedZipFile) file).getCrc());
+        } else if (file instanceof ZipFile) {
+            ZipFile zipFile = (ZipFile) file;
+            return zipFile.getSize() != -1 && zipFile.getCrc() != -1 ? new Fingerprint(zipFile.getSize(), zipFile.getCrc()) : null;
+        } else if (file instanceof SystemFile) {
+            long lastModified = ((SystemFile) file).getLastModified();
+            return lastModified != 0 ? new Fingerprint(((SystemFile) file).getSize(), lastModified) : null;
+        } else {
+            return null;
+        }
+    }
+
+    /** the fingerprint of the given archive, or null if it is not an existing file */
+    public static Fingerprint of(final java.io.File file) {
+        return file.isFile() ? new Fingerprint(file.length(), file.lastModified()) : null;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public long getStamp() {
+        return stamp;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        return o instanceof Fingerprint && size == ((Fingerprint) o).size && stamp == ((Fingerprint) o).stamp;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (int) (size ^ (size >>> 32)) + (int) (stamp ^ (stamp >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        return size + ":" + stamp;
+    }
+}
@@ -0,0 +1,289 @@
+package org.reflections.vfs;
+
+import com.google.common.base.Predicate;
+import com.google.common.base.Predicates;
+import com.google.common.collect.AbstractIterator;
+import org.reflections.ReflectionsException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UnsupportedEncodingException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.util.Iterator;
+
+/**
+ * an implementation of {@link org.reflections.vfs.Vfs.Dir} for a zip file, mapped into memory rather than opened as a {@link java.util.zip.ZipFile}
+ * <p>the central directory is parsed straight from the mapped archive, and entries are read from slices of it, so that the os page cache
+ * does the reading. stored entries are copied once from the mapped archive into the {@link ReadBuffer}, since the parsers read byte arrays,
+ * deflated entries are inflated straight into it. neither goes through an input stream.
+ * <p>archives larger than 2GB can not be mapped. use it instead of {@link org.reflections.vfs.ZipDir} for jar files, for example
+ * <pre>
+ *     Vfs.getDefaultUrlTypes().add(0, MappedZipDir.URL_TYPE);
+ * </pre>
+ * <p>there is no unmapping in java, the mapping is released once garbage collected after the dir is closed
+ * <p>when filtering its entries, the directory of each entry is compared bytewise with the directory of the previous one,
+ * so that the names of entries in directories none of whose files might be accepted are not even decoded
+ */
+public class MappedZipDir implements Vfs.FilteredDir {
+    /** a url type for zip files, such as {@code file:/lib/some.jar} or {@code jar:file:/lib/some.jar!/} */
+    public static final Vfs.UrlType URL_TYPE = new Vfs.UrlType() {
+        public boolean matches(URL url) {
+            String externalForm = url.toExternalForm();
+            return (externalForm.startsWith("file:") || externalForm.startsWith("jar:file:")) && new File(Vfs.normalizePath(url)).isFile();
+        }
+
+        public Vfs.Dir createDir(URL url) {
+            return new MappedZipDir(url);
+        }
+
+        @Override public String toString() {
+            return "mappedZipDir";
+        }
+    };
+
+    private static final int END_OF_CENTRAL_DIRECTORY = 0x06054b50;
+    private static final int ZIP64_END_OF_CENTRAL_DIRECTORY_LOCATOR = 0x07064b50;
+    private static final int ZIP64_END_OF_CENTRAL_DIRECTORY = 0x06064b50;
+    private static final int CENTRAL_DIRECTORY_ENTRY = 0x02014b50;
+    private static final long UNKNOWN = 0xFFFFFFFFL;
+
+    private final String path;
+    private ByteBuffer buffer;
+    private final String root; //the directory of the archive this dir is rooted at, or empty
+    private final int entries;
+    private final int centralDirectoryOffset;
+    private final int centralDirectorySize;
+    private final int base; //the offset of the archive, where data was prepended to it
+
+    public MappedZipDir(final URL url) {
+        this(Vfs.normalizePath(url), map(new File(Vfs.normalizePath(url))));
+    }
+
+    /** a dir over a zip archive already in memory */
+    MappedZipDir(final String path, final ByteBuffer buffer) {
+        this(path, buffer, "");
+    }
+
+    /** a dir over the given directory of a zip archive already in memory, such as {@code BOOT-INF/classes/}, with paths relative to it */
+    MappedZipDir(final String path, final ByteBuffer buffer, final String root) {
+        this.path = path;
+        this.buffer = buffer;
+        this.root = root;
+
+        int end = findEndOfCentralDirectory();
+        long entries = u2(end + 10);
+        long size = u4(end + 12);
+        long offset = u4(end + 16);
+
+        if (entries == 0xFFFF || size == UNKNOWN || offset == UNKNOWN) {
+            int locator = end - 20;
+            if (locator >= 0 && u4(locator) == ZIP64_END_OF_CENTRAL_DIRECTORY_LOCATOR) {
+                int zip64End = checkedInt(u8(locator + 8));
+                if (u4(zip64End) != ZIP64_END_OF_CENTRAL_DIRECTORY) throw new ReflectionsException("invalid zip64 archive " + path);
+                entries = u8(zip64End + 32);
+                size = u8(zip64End + 40);
+                offset = u8(zip64End + 48);
+                end = zip64End;
+            }
+        }
+
+        this.entries = checkedInt(entries);
+        this.base = checkedInt(end - size - offset);
+        this.centralDirectoryOffset = checkedInt(base + offset);
+        this.centralDirectorySize = checkedInt(size);
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public Iterable<Vfs.File> getFiles() {
+        return getFiles(Predicates.<String>alwaysTrue());
+    }
+
+    public Iterable<Vfs.File> getFiles(final Predicate<String> inputsFilter) {
+        if (buffer == null) throw new ReflectionsException("zip dir is closed " + path);
+
+        return new Iterable<Vfs.File>() {
+            public Iterator<Vfs.File> iterator() {
+                return new AbstractIterator<Vfs.File>() {
+                    int index = 0;
+                    int offset = centralDirectoryOffset;
+                    int directoryOffset = -1; //the directory of the last entry, and whether its files might be accepted
+                    int directoryLength;
+                    boolean mayAccept;
+
+                    protected Vfs.File computeNext() {
+                        while (index++ < entries) {
+                            if (u4(offset) != CENTRAL_DIRECTORY_ENTRY) throw new ReflectionsException("invalid central directory entry in " + path);
+                            int nameLength = u2(offset + 28);
+                            int extraLength = u2(offset + 30);
+                            int commentLength = u2(offset + 32);
+                            int entry = offset;
+                            offset += 46 + nameLength + extraLength + commentLength;
+
+                            int nameOffset = entry + 46;
+                            int slash = lastSlash(nameOffset, nameLength);
+                            if (slash != -1 && !equalBytes(directoryOffset, directoryLength, nameOffset, slash)) {
+                                directoryOffset = nameOffset;
+                                directoryLength = slash;
+                                String directory = decodeName(nameOffset, slash + 1);
+                                mayAccept = directory.startsWith(root) &&
+                                        (directory.length() == root.length() || Vfs.mayAccept(inputsFilter, directory.substring(root.length(), slash)));
+                            }
+                            if (slash != -1 ? !mayAccept : root.length() != 0) continue;
+
+                            String name = decodeName(nameOffset, nameLength).substring(root.length());
+                            if (name.length() != 0 && inputsFilter.apply(name.replace('/', '.'))) {
+                                return createFile(entry, name, nameLength, extraLength);
+                            }
+                        }
+                        return endOfData();
+                    }
+                };
+            }
+        };
+    }
+
+    public void close() {
+        buffer = null;
+    }
+
+    /** updates the given digest with the central directory of this archive, holding the name, size and crc of each of its entries,
+     * so that the digest tells the content of the archive without reading its entries */
+    public void digest(final MessageDigest digest) {
+        if (buffer == null) throw new ReflectionsException("zip dir is closed " + path);
+        ByteBuffer centralDirectory = buffer.duplicate();
+        centralDirectory.limit(centralDirectoryOffset + centralDirectorySize);
+        centralDirectory.position(centralDirectoryOffset);
+        digest.update(centralDirectory);
+    }
+
+    /** the file of the given name, relative to the root of this dir, or null */
+    MappedZipFile getFile(final String name) {
+        for (Vfs.File file : getFiles()) {
+            if (file.getRelativePath().equals(name)) return (MappedZipFile) file;
+        }
+        return null;
+    }
+
+    /** a dir over the given directory of this archive, with paths relative to it */
+    MappedZipDir getDir(final String directory) {
+        if (buffer == null) throw new ReflectionsException("zip dir is closed " + path);
+        return new MappedZipDir(path + "!/" + directory, buffer.duplicate(), root + directory + "/");
+    }
+
+    @Override
+    public String toString() {
+        return path;
+    }
+
+    //
+    private MappedZipFile createFile(final int offset, final String name, final int nameLength, final int extraLength) {
+        int method = u2(offset + 10);
+        long compressedSize = u4(offset + 20);
+        long size = u4(offset + 24);
+        long localHeaderOffset = u4(offset + 42);
+
+        //zip64 extended information, holds the values not fitting in 32 bits, in this order
+        int extra = offset + 46 + nameLength;
+        int extraEnd = extra + extraLength;
+        while (extra + 4 <= extraEnd) {
+            int id = u2(extra), length = u2(extra + 2);
+            if (id == 0x0001) {
+                int field = extra + 4;
+                if (size == UNKNOWN) { size = u8(field); field += 8; }
+                if (compressedSize == UNKNOWN) { compressedSize = u8(field); field += 8; }
+                if (localHeaderOffset == UNKNOWN) { localHeaderOffset = u8(field); }
+                break;
+            }
+            extra += 4 + length;
+        }
+
+        return new MappedZipFile(this, name, method, checkedInt(compressedSize), checkedInt(size), u4(offset + 16), checkedInt(base + localHeaderOffset));
+    }
+
+    /** the index of the last slash in the given name, or -1 */
+    private int lastSlash(final int offset, final int length) {
+        for (int i = length - 1; i >= 0; i--) {
+            if (buffer.get(offset + i) == '/') return i;
+        }
+        return -1;
+    }
+
+    private boolean equalBytes(final int offset1, final int length1, final int offset2, final int length2) {
+        if (offset1 == -1 || length1 != length2) return false;
+        for (int i = length1 - 1; i >= 0; i--) {
+            if (buffer.get(offset1 + i) != buffer.get(offset2 + i)) return false;
+        }
+        return true;
+    }
+
+    /** a slice of the archive, independent of other slices */
+    ByteBuffer slice(final int offset, final int length) {
+        ByteBuffer buffer = this.buffer;
+        if (buffer == null) throw new ReflectionsException("zip dir is closed " + path);
+
+        ByteBuffer slice = buffer.duplicate();
+        slice.limit(offset + length);
+        slice.position(offset);
+        return slice.slice();
+    }
+
+    int u2(final int offset) {
+        return (buffer.get(offset) & 0xff) | (buffer.get(offset + 1) & 0xff) << 8;
+    }
+
+    long u4(final int offset) {
+        return (u2(offset) | (long) u2(offset + 2) << 16) & 0xFFFFFFFFL;
+    }
+
+    private long u8(final int offset) {
+        return u4(offset) | u4(offset + 4) << 32;
+    }
+
+    private int findEndOfCentralDirectory() {
+        int limit = Math.max(0, buffer.limit() - 22 - 0xFFFF); //the comment is at most 64k long
+        for (int offset = buffer.limit() - 22; offset >= limit; offset--) {
+            if (u4(offset) == END_OF_CENTRAL_DIRECTORY) return offset;
+        }
+        throw new ReflectionsException("not a zip archive " + path);
+    }
+
+    private String decodeName(final int offset, final int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(offset + i);
+        }
+        try {
+            return new String(bytes, "UTF-8"); //like java.util.zip.ZipFile, names are utf8 whether or not the language encoding flag is set
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private int checkedInt(final long value) {
+        if (value < 0 || value > Integer.MAX_VALUE) throw new ReflectionsException("invalid or too large zip archive " + path);
+        return (int) value;
+    }
+
+    static ByteBuffer map(final File file) {
+        RandomAccessFile randomAccessFile = null;
+        try {
+            randomAccessFile = new RandomAccessFile(file, "r");
+            FileChannel channel = randomAccessFile.getChannel();
+            if (channel.size() > Integer.MAX_VALUE) throw new ReflectionsException("zip file is too large to be mapped " + file);
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()); //the mapping remains valid once the channel is closed
+        } catch (IOException e) {
+            throw new ReflectionsException("could not map zip file " + file, e);
+        } finally {
+            if (randomAccessFile != null) {
+                try { randomAccessFile.close(); } catch (IOException e) { /*ignore*/ }
+            }
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package org.reflections.vfs;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/** an implementation of {@link org.reflections.vfs.Vfs.File} for an entry of a {@link MappedZipDir} */
+public class MappedZipFile implements Vfs.File {
+    private static final int STORED = 0;
+    private static final int DEFLATED = 8;
+    private static final int LOCAL_FILE_HEADER = 0x04034b50;
+
+    private final MappedZipDir dir;
+    private final String name;
+    private final int method;
+    private final int compressedSize;
+    private final int size;
+    private final long crc;
+    private final int localHeaderOffset;
+
+    MappedZipFile(final MappedZipDir dir, final String name, final int method, final int compressedSize, final int size, final long crc,
+                  final int localHeaderOffset) {
+        this.dir = dir;
+        this.name = name;
+        this.method = method;
+        this.compressedSize = compressedSize;
+        this.size = size;
+        this.crc = crc;
+        this.localHeaderOffset = localHeaderOffset;
+    }
+
+    public String getFullPath() {
+        return dir.getPath() + "/" + name;
+    }
+
+    public String getName() {
+        return name.substring(name.lastIndexOf("/") + 1);
+    }
+
+    public String getRelativePath() {
+        return name;
+    }
+
+    /** the uncompressed size of the entry */
+    public long getSize() {
+        return size;
+    }
+
+    /** the crc-32 of the uncompressed entry, as told by the central directory */
+    public long getCrc() {
+        return crc;
+    }
+
+    /** the content of a stored entry is read straight from the mapped archive, a deflated one is inflated from it */
+    public InputStream openInputStream() throws IOException {
+        switch (method) {
+            case STORED: return new ByteBufferInputStream(getData());
+            case DEFLATED: return new EntryInflaterInputStream(new ByteBufferInputStream(getData()), size);
+            default: throw new IOException("unsupported compression method " + method + " of " + this);
+        }
+    }
+
+    /** reads the entry into the given buffer, copying a stored entry from the mapped archive or inflating a deflated one straight into it */
+    BufferedFile read(final ReadBuffer buffer) throws IOException {
+        byte[] bytes = buffer.getBuffer(size);
+        ByteBuffer data = getData();
+
+        switch (method) {
+            case STORED:
+                data.get(bytes, 0, size);
+                return buffer.wrap(this, bytes, size);
+            case DEFLATED:
+                byte[] input = buffer.getInputBuffer(compressedSize);
+                data.get(input, 0, compressedSize);
+
+                Inflater inflater = buffer.getInflater();
+                try {
+                    inflate(inflater, input, bytes);
+                    return buffer.wrap(this, bytes, size);
+                } finally {
+                    inflater.reset();
+                }
+            default:
+                throw new IOException("unsupported compression method " + method + " of " + this);
+        }
+    }
+
+    /** the content of the entry, a slice of the mapped archive for a stored entry, otherwise inflated into memory of its own */
+    ByteBuffer getContent() throws IOException {
+        ByteBuffer data = getData();
+
+        switch (method) {
+            case STORED:
+                return data;
+            case DEFLATED:
+                byte[] input = new byte[compressedSize];
+                data.get(input);
+
+                byte[] bytes = new byte[size];
+                Inflater inflater = new Inflater(true);
+                try {
+                    inflate(inflater, input, bytes);
+                    return ByteBuffer.wrap(bytes);
+                } finally {
+                    inflater.end();
+                }
+            default:
+                throw new IOException("unsupported compression method " + method + " of " + this);
+        }
+    }
+
+    private void inflate(final Inflater inflater, final byte[] input, final byte[] bytes) throws IOException {
+        try {
+            inflater.setInput(input, 0, compressedSize);
+            if (inflater.inflate(bytes, 0, size) != size) {
+                throw new IOException("invalid entry size of " + this);
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("invalid deflated entry " + this + ": " + e.getMessage());
+        }
+    }
+
+    private ByteBuffer getData() throws IOException {
+        if (dir.u4(localHeaderOffset) != LOCAL_FILE_HEADER) throw new IOException("invalid local header of " + this);
+        int dataOffset = localHeaderOffset + 30 + dir.u2(localHeaderOffset + 26) + dir.u2(localHeaderOffset + 28);
+        return dir.slice(dataOffset, compressedSize);
+    }
+
+    @Override
+    public String toString() {
+        return dir.getPath() + "!" + java.io.File.separatorChar + name;
+    }
+
+    /** an inflater stream ending its inflater when closed, and feeding it the extra byte it might need at the end of a raw deflate stream */
+    private static class EntryInflaterInputStream extends InflaterInputStream {
+        private boolean eof;
+
+        EntryInflaterInputStream(final InputStream in, final int size) {
+            super(in, new Inflater(true), Math.max(64, Math.min(size, 8192)));
+        }
+
+        @Override protected void fill() throws IOException {
+            if (eof) throw new EOFException("unexpected end of zip entry");
+            len = in.read(buf, 0, buf.length);
+            if (len == -1) {
+                buf[0] = 0;
+                len = 1;
+                eof = true;
+            }
+            inf.setInput(buf, 0, len);
+        }
+
+        @Override public void close() throws IOException {
+            super.close();
+            inf.end();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package org.reflections.vfs;
+
+import com.google.common.collect.MapMaker;
+import org.reflections.ReflectionsException;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLStreamHandler;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * an implementation of {@link org.reflections.vfs.Vfs.Dir} for files in memory, such as classes generated at runtime
+ * <p>each dir has a {@code memory:} url of its own name, which can be scanned like any other url, for example
+ * <pre>
+ *     MemoryDir dir = new MemoryDir("generated").add("my/package/SomeClass.class", bytes);
+ *     new Reflections(new ConfigurationBuilder().setUrls(dir.getUrl()));
+ * </pre>
+ * <p>the url can be opened as well, so that a {@link java.net.URLClassLoader} can load classes from it.
+ * a dir can be found by its url as long as the url, or the dir, is referenced, and until it is disposed. names of dirs found at the same time
+ * should be unique, {@link #dispose()} a dir so that its name can be used again
+ * <p>files are read straight from their bytes, without any copy
+ */
+public class MemoryDir implements Vfs.Dir {
+    static final String PROTOCOL = "memory";
+
+    private static final ConcurrentMap<String, MemoryDir> dirs = new MapMaker().weakValues().makeMap();
+
+    private final String name;
+    private final URL url;
+    private final Map<String, MemoryFile> files = new ConcurrentHashMap<String, MemoryFile>();
+
+    public MemoryDir(final String name) {
+        this.name = name;
+        try {
+            url = new URL(PROTOCOL, null, -1, "/" + name + "/", new Handler(this)); //the url references the dir through its handler
+        } catch (MalformedURLException e) {
+            throw new ReflectionsException("invalid memory dir name " + name, e);
+        }
+
+        MemoryDir existing = dirs.putIfAbsent(name, this);
+        if (existing != null) throw new ReflectionsException("a memory dir named " + name + " already exists");
+    }
+
+    /** the dir of the given {@code memory:} url */
+    public static MemoryDir fromURL(final URL url) {
+        String path = url.getPath();
+        MemoryDir dir = path.length() > 1 ? dirs.get(path.substring(1, path.length() - 1)) : null;
+        if (dir == null) throw new ReflectionsException("no memory dir for url " + url);
+        return dir;
+    }
+
+    /** adds a file of the given relative path, such as {@code my/package/SomeClass.class}, with the given content */
+    public MemoryDir add(final String relativePath, final byte[] bytes) {
+        files.put(relativePath, new MemoryFile(this, relativePath, bytes, null));
+        return this;
+    }
+
+    /** adds a file of the given relative path, such as {@code my/package/SomeClass.class}, with the remaining bytes of the given buffer as content */
+    public MemoryDir add(final String relativePath, final ByteBuffer buffer) {
+        files.put(relativePath, new MemoryFile(this, relativePath, null, buffer.slice()));
+        return this;
+    }
+
+    /** removes the file of the given relative path */
+    public MemoryDir remove(final String relativePath) {
+        files.remove(relativePath);
+        return this;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /** the url of this dir, {@code memory:/name/} */
+    public URL getUrl() {
+        return url;
+    }
+
+    public String getPath() {
+        return url.toExternalForm();
+    }
+
+    public Iterable<Vfs.File> getFiles() {
+        return Collections.<Vfs.File>unmodifiableCollection(files.values());
+    }
+
+    /** does nothing, the dir is closed once scanned but its files are kept. see {@link #dispose()} */
+    public void close() {
+    }
+
+    /** removes this dir from the dirs found by url, so that a new dir can be created with its name. its url is no longer found afterwards */
+    public void dispose() {
+        dirs.remove(name, this);
+    }
+
+    @Override
+    public String toString() {
+        return getPath();
+    }
+
+    /** opens the files of a dir by their url */
+    private static class Handler extends URLStreamHandler {
+        private final MemoryDir dir;
+
+        Handler(final MemoryDir dir) {
+            this.dir = dir;
+        }
+
+        protected URLConnection openConnection(final URL url) throws IOException {
+            String prefix = dir.url.getPath();
+            final MemoryFile file = url.getPath().startsWith(prefix) ? dir.files.get(url.getPath().substring(prefix.length())) : null;
+            if (file == null) throw new FileNotFoundException(url.toExternalForm());
+
+            return new URLConnection(url) {
+                public void connect() {
+                }
+
+                @Override public InputStream getInputStream() {
+                    return file.openInputStream();
+                }
+
+                @Override public int getContentLength() {
+                    return file.getSize();
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package org.reflections.vfs;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/** an implementation of {@link org.reflections.vfs.Vfs.File} for a file in a {@link MemoryDir} */
+public class MemoryFile implements Vfs.File {
+    private final MemoryDir dir;
+    private final String relativePath;
+    private final byte[] bytes;
+    private final ByteBuffer buffer;
+
+    MemoryFile(final MemoryDir dir, final String relativePath, final byte[] bytes, final ByteBuffer buffer) {
+        this.dir = dir;
+        this.relativePath = relativePath;
+        this.bytes = bytes;
+        this.buffer = buffer;
+    }
+
+    public String getName() {
+        return relativePath.substring(relativePath.lastIndexOf('/') + 1);
+    }
+
+    public String getRelativePath() {
+        return relativePath;
+    }
+
+    public String getFullPath() {
+        return dir.getPath() + relativePath;
+    }
+
+    public int getSize() {
+        return bytes != null ? bytes.length : buffer.remaining();
+    }
+
+    public InputStream openInputStream() {
+        return bytes != null ? new ByteArrayInputStream(bytes) : new ByteBufferInputStream(buffer.duplicate());
+    }
+
+    /** the content of this file, wrapped as is where it is an array, otherwise copied into the given buffer */
+    BufferedFile read(final ReadBuffer readBuffer) {
+        if (bytes != null) {
+            return new BufferedFile(this, bytes, bytes.length);
+        } else if (buffer.hasArray() && buffer.arrayOffset() == 0) {
+            return new BufferedFile(this, buffer.array(), buffer.remaining());
+        } else {
+            byte[] array = readBuffer.getBuffer(buffer.remaining());
+            buffer.duplicate().get(array, 0, buffer.remaining());
+            return readBuffer.wrap(this, array, buffer.remaining());
+        }
+    }
+
+    @Override
+    public String toString() {
+        return getFullPath();
+    }
+}
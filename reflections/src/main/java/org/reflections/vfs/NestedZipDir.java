@@ -0,0 +1,108 @@
+package org.reflections.vfs;
+
+import com.google.common.base.Predicate;
+import org.reflections.ReflectionsException;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * an implementation of {@link org.reflections.vfs.Vfs.Dir} for an archive nested in another archive, or a directory of an archive,
+ * such as {@code jar:file:/app.jar!/BOOT-INF/lib/some.jar!/} or {@code jar:file:/app.jar!/BOOT-INF/classes!/} of a spring boot fat jar
+ * <p>the outer archive is mapped into memory as a {@link MappedZipDir}, and each nested archive is read straight out of its enclosing one,
+ * nothing is extracted to temporary files. a stored nested archive, as in spring boot fat jars, is a slice of the mapped archive without any copy,
+ * a deflated one, as usual in wars and ears, is inflated into memory.
+ * <p>the path following the last nested archive, if not an archive itself, is the directory the dir is rooted at
+ */
+public class NestedZipDir implements Vfs.FilteredDir {
+    /** a url type for archives nested in a zip file, or directories of a zip file, such as {@code jar:file:/app.jar!/BOOT-INF/lib/some.jar!/} */
+    public static final Vfs.UrlType URL_TYPE = new Vfs.UrlType() {
+        public boolean matches(URL url) {
+            if (!url.toExternalForm().startsWith("jar:file:")) return false;
+            String[] paths = Vfs.normalizePath(url).split("!/");
+            return paths.length > 1 && new File(paths[0]).isFile();
+        }
+
+        public Vfs.Dir createDir(URL url) {
+            return new NestedZipDir(url);
+        }
+
+        @Override public String toString() {
+            return "nestedZipDir";
+        }
+    };
+
+    private final MappedZipDir dir;
+
+    public NestedZipDir(final URL url) {
+        this(Vfs.normalizePath(url).split("!/"));
+    }
+
+    private NestedZipDir(final String[] paths) {
+        this(new File(paths[0]), Arrays.asList(paths).subList(1, paths.length));
+    }
+
+    /**
+     * a dir over the given paths within the given zip file, each one the path of an archive nested in the previous one,
+     * except for the last one which might be a directory of the innermost archive
+     */
+    public NestedZipDir(final File file, final List<String> paths) {
+        MappedZipDir dir = new MappedZipDir(file.getPath(), MappedZipDir.map(file));
+
+        for (int i = 0; i < paths.size(); i++) {
+            String path = trimSlashes(paths.get(i));
+            if (path.length() == 0) continue;
+
+            MappedZipFile entry = dir.getFile(path);
+            if (entry != null) {
+                dir = new MappedZipDir(dir.getPath() + "!/" + path, getContent(entry));
+            } else if (i == paths.size() - 1) {
+                dir = dir.getDir(path);
+            } else {
+                throw new ReflectionsException("could not find nested archive " + path + " in " + dir.getPath());
+            }
+        }
+
+        this.dir = dir;
+    }
+
+    public String getPath() {
+        return dir.getPath();
+    }
+
+    public Iterable<Vfs.File> getFiles() {
+        return dir.getFiles();
+    }
+
+    public Iterable<Vfs.File> getFiles(final Predicate<String> inputsFilter) {
+        return dir.getFiles(inputsFilter);
+    }
+
+    public void close() {
+        dir.close();
+    }
+
+    @Override
+    public String toString() {
+        return dir.toString();
+    }
+
+    private static ByteBuffer getContent(final MappedZipFile entry) {
+        try {
+            return entry.getContent();
+        } catch (IOException e) {
+            throw new ReflectionsException("could not read nested archive " + entry, e);
+        }
+    }
+
+    private static String trimSlashes(final String path) {
+        int start = 0, end = path.length();
+        while (start < end && path.charAt(start) == '/') start++;
+        while (end > start && path.charAt(end - 1) == '/') end--;
+        return path.substring(start, end);
+    }
+}
@@ -0,0 +1,118 @@
+package org.reflections.vfs;
+
+import org.reflections.util.Utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.Inflater;
+
+/**
+ * a reusable buffer for reading files into memory
+ * <p>the file is read straight into the buffer, sized from the file size where known, without any buffered stream in between.
+ * the buffer is reused for the next read, so that reading many small files does not allocate a buffer per file.
+ * a {@link BufferedFile} read into it is therefore valid only until the next read into the same buffer.
+ * <p>entries of a {@link MappedZipDir} are copied or inflated straight from the mapped archive into the buffer, using a reused inflater.
+ * files of a {@link MemoryDir} are not read at all, but wrapped as they are.
+ * <p>use {@link #local()} for the buffer of the calling thread, and {@link #releaseLocal()} once done, for example
+ * <pre>
+ *     BufferedFile file = ReadBuffer.local().read(file);
+ *     ... //parse the file, before reading the next one
+ * </pre>
+ */
+public class ReadBuffer {
+    private static final int INITIAL_SIZE = 16 * 1024;
+    /** larger files are read into a buffer of their own, so that a reused buffer does not hold on to much memory */
+    private static final int MAX_REUSED_SIZE = 1024 * 1024;
+
+    private static final ThreadLocal<ReadBuffer> localBuffer = new ThreadLocal<ReadBuffer>() {
+        @Override protected ReadBuffer initialValue() {
+            return new ReadBuffer();
+        }
+    };
+
+    private byte[] bytes;
+    private byte[] inputBytes;
+    private Inflater inflater;
+
+    /** the buffer of the calling thread */
+    public static ReadBuffer local() {
+        return localBuffer.get();
+    }
+
+    /** drops the buffer of the calling thread, once done reading, so that threads of a long lived pool do not hold on to it */
+    public static void releaseLocal() {
+        localBuffer.remove();
+    }
+
+    /** reads the given file into this buffer, valid until the next read into this buffer */
+    public BufferedFile read(final Vfs.File file) throws IOException {
+        if (file instanceof MappedZipFile) {
+            return ((MappedZipFile) file).read(this);
+        } else if (file instanceof MemoryFile) {
+            return ((MemoryFile) file).read(this);
+        }
+
+        byte[] buffer = getBuffer((int) getSize(file));
+
+        InputStream inputStream = null;
+        try {
+            inputStream = file.openInputStream();
+            int length = 0;
+            while (true) {
+                if (length == buffer.length) {
+                    int b = inputStream.read(); //the size was exact, or the buffer should grow
+                    if (b == -1) break;
+                    byte[] grown = new byte[buffer.length * 2];
+                    System.arraycopy(buffer, 0, grown, 0, length);
+                    buffer = grown;
+                    buffer[length++] = (byte) b;
+                }
+
+                int read = inputStream.read(buffer, length, buffer.length - length);
+                if (read == -1) break;
+                length += read;
+            }
+
+            if (buffer.length <= MAX_REUSED_SIZE) bytes = buffer;
+            return wrap(file, buffer, length);
+        } finally {
+            Utils.close(inputStream);
+        }
+    }
+
+    /** a buffer of at least the given size, the reused one unless the size is too large to be reused */
+    byte[] getBuffer(final int size) {
+        if (size > MAX_REUSED_SIZE) return new byte[size];
+
+        if (bytes == null || bytes.length < size) {
+            bytes = new byte[Math.max(size, INITIAL_SIZE)];
+        }
+        return bytes;
+    }
+
+    /** a reused buffer for compressed input, of at least the given size */
+    byte[] getInputBuffer(final int size) {
+        if (size > MAX_REUSED_SIZE) return new byte[size];
+
+        if (inputBytes == null || inputBytes.length < size) {
+            inputBytes = new byte[Math.max(size, INITIAL_SIZE)];
+        }
+        return inputBytes;
+    }
+
+    /** a reused inflater for raw deflated input, to be reset after use */
+    Inflater getInflater() {
+        if (inflater == null) inflater = new Inflater(true);
+        return inflater;
+    }
+
+    BufferedFile wrap(final Vfs.File file, final byte[] buffer, final int length) {
+        return new BufferedFile(file, buffer, length, buffer == bytes ? this : null);
+    }
+
+    /** the size of the given file if known, otherwise -1 */
+    private static long getSize(final Vfs.File file) {
+        return file instanceof ZipFile ? ((ZipFile) file).getSize() :
+               file instanceof SystemFile ? ((SystemFile) file).getSize() : -1;
+    }
+}
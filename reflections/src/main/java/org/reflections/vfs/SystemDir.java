@@ -1,16 +1,22 @@
 package org.reflections.vfs;
 
+import com.google.common.base.Predicate;
+import com.google.common.base.Predicates;
 import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.Lists;
 
+import java.io.File;
 import java.net.URL;
 import java.util.Iterator;
-import java.util.Stack;
 import java.util.List;
-import java.io.File;
 
-/** an implementation of {@link org.reflections.vfs.Vfs.Dir} for directory {@link java.io.File} */
-public class SystemDir implements Vfs.Dir {
+/**
+ * an implementation of {@link org.reflections.vfs.Vfs.Dir} for directory {@link java.io.File}
+ * <p>the files of a subtree can be enumerated by themselves using {@link #getFiles(String, Predicate, Predicate)},
+ * so that the subtrees of a large directory can be enumerated in parallel. subdirectories none of whose files might be accepted
+ * by the inputs filter are not listed at all
+ */
+public class SystemDir implements Vfs.FilteredDir {
     private final File file;
 
     public SystemDir(URL url) {
@@ -22,23 +28,50 @@ public class SystemDir implements Vfs.Dir {
     }
 
     public Iterable<Vfs.File> getFiles() {
+        return getFiles(Predicates.<String>alwaysTrue());
+    }
+
+    public Iterable<Vfs.File> getFiles(final Predicate<String> inputsFilter) {
+        return getFiles("", inputsFilter, Predicates.<String>alwaysFalse());
+    }
+
+    /**
+     * the files under the given relative directory of this dir accepted by the given inputs filter, or under this dir itself for an empty relative path.
+     * <p>subdirectories are offered to the given predicate as they are found, by their relative path. those it accepts are left out,
+     * for the caller to enumerate by itself using this method, possibly in another thread
+     */
+    public Iterable<Vfs.File> getFiles(final String relativePath, final Predicate<String> inputsFilter, final Predicate<String> split) {
         return new Iterable<Vfs.File>() {
             public Iterator<Vfs.File> iterator() {
                 return new AbstractIterator<Vfs.File>() {
-                    final Stack<File> stack = new Stack<File>();
-                    {stack.addAll(listFiles(file));}
+                    //directories still to be listed, and their relative paths
+                    final List<File> dirs = Lists.newArrayList(relativePath.length() != 0 ? new File(file, relativePath) : file);
+                    final List<String> dirPaths = Lists.newArrayList(relativePath);
+                    File[] files;
+                    String parentPath;
+                    int index;
 
                     protected Vfs.File computeNext() {
-                        while (!stack.isEmpty()) {
-                            final File file = stack.pop();
-                            if (file.isDirectory()) {
-                                stack.addAll(listFiles(file));
+                        while (true) {
+                            if (files != null && index < files.length) {
+                                File file = files[index++];
+                                String path = parentPath + file.getName();
+                                if (!file.isDirectory()) {
+                                    if (inputsFilter.apply(path.replace('/', '.'))) return new SystemFile(SystemDir.this, file, path);
+                                } else if (Vfs.mayAccept(inputsFilter, path) && !split.apply(path)) {
+                                    dirs.add(file);
+                                    dirPaths.add(path);
+                                }
+                            } else if (!dirs.isEmpty()) {
+                                int last = dirs.size() - 1;
+                                files = dirs.remove(last).listFiles();
+                                String dirPath = dirPaths.remove(last);
+                                parentPath = dirPath.length() != 0 ? dirPath + "/" : "";
+                                index = 0;
                             } else {
-                                return new SystemFile(SystemDir.this, file);
+                                return endOfData();
                             }
                         }
-
-                        return endOfData();
                     }
                 };
             }
@@ -52,13 +85,4 @@ public class SystemDir implements Vfs.Dir {
     public String toString() {
         return file.toString();
     }
-
-    private static List<File> listFiles(final File file) {
-        File[] files = file.listFiles();
-
-        if (files != null)
-            return Lists.newArrayList(files);
-        else
-            return Lists.newArrayList();
-    }
 }
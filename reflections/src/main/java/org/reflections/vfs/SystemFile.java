@@ -8,10 +8,17 @@ import java.io.FileNotFoundException;
 public class SystemFile implements Vfs.File {
     private final SystemDir dir;
     private final java.io.File file;
+    private final String relativePath;
 
     public SystemFile(final SystemDir dir, java.io.File file) {
+        this(dir, file, relativePath(dir, file));
+    }
+
+    /** a file of the given dir, at the given relative path, as found while enumerating the dir */
+    SystemFile(final SystemDir dir, java.io.File file, final String relativePath) {
         this.dir = dir;
         this.file = file;
+        this.relativePath = relativePath;
     }
 
     public String getFullPath() {
@@ -23,11 +30,16 @@ public class SystemFile implements Vfs.File {
     }
 
     public String getRelativePath() {
-        if (file.getPath().startsWith(dir.getPath())) {
-            return file.getPath().substring(dir.getPath().length() + 1).replace('\\', '/');
-        }
+        return relativePath;
+    }
 
-        return null; //should not get here
+    public long getSize() {
+        return file.length();
+    }
+
+    /** the time the file was last modified, in milliseconds since the epoch, or 0 if not known */
+    public long getLastModified() {
+        return file.lastModified();
     }
 
     public InputStream openInputStream() {
@@ -42,4 +54,12 @@ public class SystemFile implements Vfs.File {
     public String toString() {
         return file.toString();
     }
+
+    private static String relativePath(final SystemDir dir, final java.io.File file) {
+        if (file.getPath().startsWith(dir.getPath())) {
+            return file.getPath().substring(dir.getPath().length() + 1).replace('\\', '/');
+        }
+
+        return null; //should not get here
+    }
 }
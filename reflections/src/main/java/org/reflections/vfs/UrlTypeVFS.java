@@ -3,6 +3,8 @@ package org.reflections.vfs;
 import java.io.File;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -15,6 +17,8 @@ import com.google.common.base.Predicate;
 /**
  * UrlType to be used by Reflections library.
  * This class handles the vfszip and vfsfile protocol of JBOSS files.
+ * <p>archives nested in a vfszip path, such as {@code vfszip:/app.ear/web.war/WEB-INF/lib/some.jar/}, are read straight out of
+ * the real zip file by a {@link NestedZipDir}, without extracting them.
  * <p>
  * <p>to use it, register it in Vfs via {@link org.reflections.vfs.Vfs#addDefaultURLTypes(org.reflections.vfs.Vfs.UrlType)} or {@link org.reflections.vfs.Vfs#setDefaultURLTypes(java.util.List)}.
  * @author Sergio Pola
@@ -31,6 +35,9 @@ public class UrlTypeVFS implements UrlType {
     }
 
     public Dir createDir(final URL url) {
+        if (VFSZIP.equals(url.getProtocol())) {
+            return createNestedDir(url.getPath());
+        }
         try {
             URL adaptedUrl = adaptURL(url);
             return new ZipDir(adaptedUrl);
@@ -50,6 +57,26 @@ public class UrlTypeVFS implements UrlType {
         }
     }
 
+    /** a dir over the archives nested in the real zip file of the given path, the remainder being the directory of the innermost one */
+    Dir createNestedDir(String path) {
+        int pos = 0;
+        while ((pos = findFirstMatchOfDeployableExtention(path, pos)) > 0) {
+            File file = new File(path.substring(0, pos - 1));
+            if (realFile.apply(file)) {
+                List<String> paths = new ArrayList<String>();
+                int start = pos, end;
+                while ((end = findFirstMatchOfDeployableExtention(path, start)) != -1) {
+                    paths.add(path.substring(start, end - 1));
+                    start = end;
+                }
+                paths.add(path.substring(start));
+                return new NestedZipDir(file, paths);
+            }
+        }
+
+        throw new ReflectionsException("Unable to identify the real zip file in path '" + path + "'.");
+    }
+
     URL replaceZipSeparators(String path, Predicate<File> acceptFile)
             throws MalformedURLException {
         int pos = 0;
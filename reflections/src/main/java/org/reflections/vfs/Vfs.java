@@ -4,6 +4,7 @@ import com.google.common.base.Predicate;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import org.reflections.ReflectionsException;
+import org.reflections.util.FilterBuilder;
 import org.reflections.util.Utils;
 
 import java.io.IOException;
@@ -54,6 +55,13 @@ public abstract class Vfs {
         void close();
     }
 
+    /** a vfs dir that can leave out files not accepted by an inputs filter before creating them,
+     * skipping whole directories none of whose files might be accepted */
+    public interface FilteredDir extends Dir {
+        /** the files accepted by the given filter of fully qualified names, such as {@code my.package.SomeClass.class} */
+        Iterable<File> getFiles(Predicate<String> inputsFilter);
+    }
+
     /** an abstract vfs file */
     public interface File {
         String getName();
@@ -111,7 +119,27 @@ public abstract class Vfs {
         return fromURL(url, Lists.<UrlType>newArrayList(urlTypes));
     }
 
-    /** return an iterable of all {@link org.reflections.vfs.Vfs.File} in given urls, matching filePredicate */
+    /** the files of the given dir accepted by the given filter of fully qualified names, such as {@code my.package.SomeClass.class}
+     * <p>a {@link org.reflections.vfs.Vfs.FilteredDir} leaves out the others before creating them, other dirs filter their files */
+    public static Iterable<File> getFiles(final Dir dir, final Predicate<String> inputsFilter) {
+        if (dir instanceof FilteredDir) {
+            return ((FilteredDir) dir).getFiles(inputsFilter);
+        }
+
+        return Iterables.filter(dir.getFiles(), new Predicate<File>() {
+            public boolean apply(File file) {
+                return inputsFilter.apply(file.getRelativePath().replace('/', '.'));
+            }
+        });
+    }
+
+    /** false if the given filter accepts no file under the given relative directory path, as told by a {@link FilterBuilder} */
+    static boolean mayAccept(final Predicate<String> inputsFilter, final String directory) {
+        return !(inputsFilter instanceof FilterBuilder) || ((FilterBuilder) inputsFilter).mayAccept(directory.replace('/', '.') + ".");
+    }
+
+    /** return an iterable of all {@link org.reflections.vfs.Vfs.File} in given urls, matching filePredicate
+     * <p>the dirs of the urls are not closed, use a {@link DirPool} to have them closed */
     public static Iterable<File> findFiles(final Collection<URL> inUrls, final Predicate<File> filePredicate) {
         Iterable<File> result = new ArrayList<File>();
 
@@ -125,7 +153,16 @@ public abstract class Vfs {
 
     /** return an iterable of all {@link org.reflections.vfs.Vfs.File} in given urls, starting with given packagePrefix and matching nameFilter */
     public static Iterable<File> findFiles(final Collection<URL> inUrls, final String packagePrefix, final Predicate<String> nameFilter) {
-        Predicate<File> fileNamePredicate = new Predicate<File>() {
+        return findFiles(inUrls, fileNamePredicate(packagePrefix, nameFilter));
+    }
+
+    /** return an iterable of all {@link org.reflections.vfs.Vfs.File} in given dir, starting with given packagePrefix and matching nameFilter */
+    public static Iterable<File> findFiles(final Dir dir, final String packagePrefix, final Predicate<String> nameFilter) {
+        return Iterables.filter(dir.getFiles(), fileNamePredicate(packagePrefix, nameFilter));
+    }
+
+    private static Predicate<File> fileNamePredicate(final String packagePrefix, final Predicate<String> nameFilter) {
+        return new Predicate<File>() {
             public boolean apply(File file) {
                 String path = file.getRelativePath();
                 if (path.startsWith(packagePrefix)) {
@@ -136,13 +173,13 @@ public abstract class Vfs {
                 }
             }
         };
-
-        return findFiles(inUrls, fileNamePredicate);
     }
 
     /** default url types used by {@link org.reflections.vfs.Vfs#fromURL(java.net.URL)}
      * <p>
      * <p>jarfile - creates a {@link org.reflections.vfs.ZipDir} over jar file
+     * <p>nestedJarUrl - creates a {@link org.reflections.vfs.NestedZipDir} over an archive nested in a jar, or a directory of a jar,
+     * such as {@code jar:file:/app.jar!/BOOT-INF/lib/some.jar!/}
      * <p>jarUrl - creates a {@link org.reflections.vfs.ZipDir} over a jar url (contains ".jar!/" in it's name)
      * <p>directory - creates a {@link org.reflections.vfs.SystemDir} over a file system directory
      * <p>vfsfile and vfszip - creates a {@link org.reflections.vfs.ZipDir} over jboss vfs types
@@ -152,6 +189,10 @@ public abstract class Vfs {
             public boolean matches(URL url) {return url.getProtocol().equals("file") && url.toExternalForm().contains(".jar");}
             public Dir createDir(final URL url) {return new ZipDir(url);}},
 
+        nestedJarUrl {
+            public boolean matches(URL url) {return NestedZipDir.URL_TYPE.matches(url);}
+            public Dir createDir(URL url) {return NestedZipDir.URL_TYPE.createDir(url);}},
+
         jarUrl {
             public boolean matches(URL url) {return url.toExternalForm().contains(".jar!");}
             public Dir createDir(URL url) {return new ZipDir(url);}},
@@ -166,7 +207,11 @@ public abstract class Vfs {
 
         vfsdir {
             public boolean matches(URL url) {return url.getProtocol().contains("vfs") && !url.toExternalForm().contains(".jar");}
-            public Dir createDir(URL url) {return new SystemDir(url);}}
+            public Dir createDir(URL url) {return new SystemDir(url);}},
+
+        memory {
+            public boolean matches(URL url) {return url.getProtocol().equals(MemoryDir.PROTOCOL);}
+            public Dir createDir(URL url) {return MemoryDir.fromURL(url);}}
     }
 
     //
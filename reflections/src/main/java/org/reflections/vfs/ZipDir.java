@@ -1,5 +1,6 @@
 package org.reflections.vfs;
 
+import com.google.common.base.Predicate;
 import com.google.common.collect.AbstractIterator;
 import org.reflections.ReflectionsException;
 
@@ -11,8 +12,10 @@ import java.util.Enumeration;
 import java.util.Iterator;
 import java.util.zip.ZipEntry;
 
-/** an implementation of {@link org.reflections.vfs.Vfs.Dir} for {@link java.util.zip.ZipFile} */
-public class ZipDir implements Vfs.Dir {
+/** an implementation of {@link org.reflections.vfs.Vfs.Dir} for {@link java.util.zip.ZipFile}
+ * <p>entries are grouped by directory in an archive, so that when filtering its entries, directories none of whose files
+ * might be accepted are told once for all of their entries */
+public class ZipDir implements Vfs.FilteredDir {
     final java.util.zip.ZipFile zipFile;
     private String path;
 
@@ -41,6 +44,36 @@ public class ZipDir implements Vfs.Dir {
         };
     }
 
+    public Iterable<Vfs.File> getFiles(final Predicate<String> inputsFilter) {
+        return new Iterable<Vfs.File>() {
+            public Iterator<Vfs.File> iterator() {
+                return new AbstractIterator<Vfs.File>() {
+                    final Enumeration<? extends ZipEntry> entries = zipFile.entries();
+                    String directory; //the directory of the last entry, and whether its files might be accepted
+                    boolean mayAccept;
+
+                    protected Vfs.File computeNext() {
+                        while (entries.hasMoreElements()) {
+                            ZipEntry entry = entries.nextElement();
+                            String name = entry.getName();
+
+                            int slash = name.lastIndexOf('/');
+                            if (slash != -1 && (directory == null || directory.length() != slash || !name.startsWith(directory))) {
+                                directory = name.substring(0, slash);
+                                mayAccept = Vfs.mayAccept(inputsFilter, directory);
+                            }
+
+                            if ((slash == -1 || mayAccept) && inputsFilter.apply(name.replace('/', '.'))) {
+                                return new ZipFile(ZipDir.this, entry);
+                            }
+                        }
+                        return endOfData();
+                    }
+                };
+            }
+        };
+    }
+
     public void close() {
         if (zipFile != null) {
             try {zipFile.close();}
@@ -31,6 +31,16 @@ public class ZipFile implements Vfs.File {
         return entry.getName();
     }
 
+    /** the uncompressed size of the entry, or -1 if not known */
+    public long getSize() {
+        return entry.getSize();
+    }
+
+    /** the crc-32 of the uncompressed entry, or -1 if not known */
+    public long getCrc() {
+        return entry.getCrc();
+    }
+
     public InputStream openInputStream() throws IOException {
         return dir.zipFile.getInputStream(entry);
     }
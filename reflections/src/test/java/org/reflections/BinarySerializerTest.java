@@ -0,0 +1,86 @@
+package org.reflections;
+
+import com.google.common.base.Predicate;
+import com.google.common.io.Files;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.reflections.scanners.*;
+import org.reflections.serializers.BinarySerializer;
+import org.reflections.util.ClasspathHelper;
+import org.reflections.util.ConfigurationBuilder;
+import org.reflections.util.FilterBuilder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.reflections.TestModel.*;
+
+/** */
+public class BinarySerializerTest {
+    private File dir;
+
+    @Before
+    public void createDir() {
+        dir = Files.createTempDir();
+    }
+
+    @After
+    public void deleteDir() throws IOException {
+        FileUtils.deleteDirectory(dir);
+    }
+
+    @Test
+    public void testSaveAndRead() throws IOException {
+        Predicate<String> filter = new FilterBuilder().include("org.reflections.TestModel\\$.*");
+        Reflections reflections = new Reflections(new ConfigurationBuilder()
+                .filterInputsBy(filter)
+                .setScanners(
+                        new SubTypesScanner().filterResultsBy(filter),
+                        new TypeAnnotationsScanner().filterResultsBy(filter),
+                        new FieldAnnotationsScanner().filterResultsBy(filter),
+                        new MethodAnnotationsScanner().filterResultsBy(filter))
+                .setUrls(asList(ClasspathHelper.forClass(TestModel.class))));
+
+        File file = new BinarySerializer().save(reflections, new File(dir, "META-INF/reflections/testModel-reflections.bin").getPath());
+        Reflections mapped = new BinarySerializer().read(file);
+
+        assertEquals(reflections.getStore().getStoreMap(), mapped.getStore().getStoreMap());
+        assertEquals(reflections.getSubTypesOf(I1.class), mapped.getSubTypesOf(I1.class));
+        assertEquals(reflections.getTypesAnnotatedWith(MAI1.class), mapped.getTypesAnnotatedWith(MAI1.class));
+        assertEquals(reflections.getMethodsAnnotatedWith(AM1.class), mapped.getMethodsAnnotatedWith(AM1.class));
+        assertEquals(reflections.getFieldsAnnotatedWith(AF1.class), mapped.getFieldsAnnotatedWith(AF1.class));
+        assertFalse(mapped.getSubTypesOf(I1.class).isEmpty());
+        assertTrue(mapped.getStore().getSubTypesOf("unknown").isEmpty());
+
+        FileInputStream inputStream = new FileInputStream(file);
+        try {
+            assertEquals(reflections.getStore().getStoreMap(), new BinarySerializer().read(inputStream).getStore().getStoreMap());
+        } finally {
+            inputStream.close();
+        }
+
+        String dump = new BinarySerializer().toString(mapped);
+        assertEquals(new BinarySerializer().toString(reflections), dump);
+        assertTrue(dump.startsWith("FieldAnnotationsScanner\n    " + AF1.class.getName() + "\n        "));
+        assertTrue(dump.contains("\nSubTypesScanner\n"));
+        assertTrue(dump.contains("\n    " + I1.class.getName() + "\n        " + I2.class.getName() + "\n"));
+
+        try {
+            mapped.getStore().get(SubTypesScanner.class).put(I1.class.getName(), "unknown");
+            fail("read only");
+        } catch (UnsupportedOperationException e) {
+            //expected
+        }
+        Reflections merged = new Reflections(new ConfigurationBuilder().setScanners()).merge(mapped);
+        merged.getStore().get(SubTypesScanner.class).put(I1.class.getName(), "unknown");
+        assertTrue(merged.getStore().getSubTypesOf(I1.class.getName()).contains("unknown"));
+    }
+}
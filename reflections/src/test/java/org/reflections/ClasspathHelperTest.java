@@ -0,0 +1,80 @@
+package org.reflections;
+
+import com.google.common.base.Predicates;
+import com.google.common.collect.Multimap;
+import com.google.common.collect.Sets;
+import org.junit.Test;
+import org.reflections.scanners.AbstractScanner;
+import org.reflections.scanners.SubTypesScanner;
+import org.reflections.util.ClasspathHelper;
+import org.reflections.util.ConfigurationBuilder;
+import org.reflections.vfs.Vfs;
+
+import java.io.File;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/** */
+public class ClasspathHelperTest {
+
+    @Test
+    public void testCanonicalUrls() throws MalformedURLException {
+        URL jarUrl = ClasspathHelper.forClass(Predicates.class);
+        URL jar = new File(Vfs.normalizePath(jarUrl)).toURI().toURL();
+        URL dir = ClasspathHelper.forClass(ClasspathHelperTest.class);
+        URL sameDir = new File(new File(dir.getPath()), "org/..").toURI().toURL();
+
+        assertEquals(Sets.newHashSet(jar, dir), ClasspathHelper.canonicalUrls(Arrays.asList(jar, dir, jarUrl, sameDir)));
+    }
+
+    @Test
+    public void testNestedPaths() throws MalformedURLException {
+        URL dir = ClasspathHelper.forClass(ClasspathHelperTest.class);
+        URL nested = new File(new File(dir.getPath()), "org/reflections").toURI().toURL();
+
+        Multimap<URL, String> nestedPaths = ClasspathHelper.nestedPaths(Arrays.asList(dir, nested, ClasspathHelper.forClass(Predicates.class)));
+        assertEquals(1, nestedPaths.size());
+        assertEquals(Sets.newHashSet("org/reflections"), nestedPaths.get(dir));
+    }
+
+    @Test
+    public void testForPackage() {
+        Set<URL> urls = ClasspathHelper.forPackage("org.reflections");
+        assertTrue(urls.contains(ClasspathHelper.forClass(ClasspathHelperTest.class)));
+        assertEquals(urls, ClasspathHelper.forPackage("org.reflections"));
+
+        ClasspathHelper.clearCache();
+        assertEquals(urls, ClasspathHelper.forPackage("org.reflections"));
+    }
+
+    @Test
+    public void testScanNestedUrls() throws MalformedURLException {
+        URL dir = ClasspathHelper.forClass(ClasspathHelperTest.class);
+        URL nested = new File(new File(dir.getPath()), "org").toURI().toURL();
+
+        CountingScanner scanner = new CountingScanner();
+        Reflections reflections = new Reflections(new ConfigurationBuilder().setUrls(dir).setScanners(new SubTypesScanner(), scanner));
+        CountingScanner nestedScanner = new CountingScanner();
+        Reflections nestedReflections = new Reflections(new ConfigurationBuilder()
+                .setUrls(dir, nested, new URL(dir.toExternalForm() + "org/.."))
+                .setScanners(new SubTypesScanner(), nestedScanner));
+
+        assertTrue(scanner.count.get() > 0);
+        assertEquals("each class scanned once", scanner.count.get(), nestedScanner.count.get());
+        assertEquals(reflections.getStore().get(SubTypesScanner.class), nestedReflections.getStore().get(SubTypesScanner.class));
+    }
+
+    static class CountingScanner extends AbstractScanner {
+        final AtomicInteger count = new AtomicInteger();
+
+        public void scan(Object cls) {
+            count.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package org.reflections;
+
+import com.google.common.collect.Iterables;
+import com.google.common.io.Files;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.reflections.scanners.ResourcesScanner;
+import org.reflections.util.ConfigurationBuilder;
+import org.reflections.vfs.DirPool;
+import org.reflections.vfs.Vfs;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/** */
+public class DirPoolTest {
+    private File dir;
+    private URL jar1, jar2;
+
+    @Before
+    public void createJars() throws IOException {
+        dir = Files.createTempDir();
+        jar1 = createJar("jar1.jar", "some/resource1.txt");
+        jar2 = createJar("jar2.jar", "some/resource2.txt");
+    }
+
+    @After
+    public void deleteJars() throws IOException {
+        FileUtils.deleteDirectory(dir);
+    }
+
+    @Test
+    public void testReuseAndEviction() {
+        DirPool dirPool = new DirPool(1);
+
+        Vfs.Dir dir1 = dirPool.acquire(jar1);
+        assertSame(dir1, dirPool.acquire(jar1));
+        dirPool.release(dir1);
+        dirPool.release(dir1);
+        assertTrue("released dir is kept open", isOpen(dir1));
+        assertSame(dir1, dirPool.acquire(jar1));
+        dirPool.release(dir1);
+
+        Vfs.Dir dir2 = dirPool.acquire(jar2);
+        assertTrue("in use dir is not closed", isOpen(dir1));
+        dirPool.release(dir2);
+        assertFalse("least recently used dir is closed", isOpen(dir1));
+        assertTrue(isOpen(dir2));
+
+        dirPool.close();
+        assertFalse(isOpen(dir2));
+    }
+
+    @Test
+    public void testClose() {
+        DirPool dirPool = new DirPool();
+        Vfs.Dir dir1 = dirPool.acquire(jar1);
+        dirPool.close();
+
+        assertTrue("in use dir is closed on release", isOpen(dir1));
+        dirPool.release(dir1);
+        assertFalse(isOpen(dir1));
+
+        try {
+            dirPool.acquire(jar1);
+            fail("closed pool");
+        } catch (ReflectionsException e) {
+            //expected
+        }
+    }
+
+    @Test
+    public void testScanSession() {
+        ScanSession session = new ScanSession(null);
+        ConfigurationBuilder configuration = new ConfigurationBuilder().addUrls(jar1, jar2).setScanners(new ResourcesScanner());
+
+        Vfs.Dir dir1 = session.getDirPool().acquire(jar1);
+        for (int i = 0; i < 2; i++) {
+            assertEquals(2, session.scan(configuration).getResources(Pattern.compile(".*\\.txt")).size());
+            assertSame("dirs are reused across scans", dir1, session.getDirPool().acquire(jar1));
+            session.getDirPool().release(dir1);
+        }
+        session.getDirPool().release(dir1);
+
+        session.close();
+        assertFalse(isOpen(dir1));
+    }
+
+    //
+    private URL createJar(final String name, final String entry) throws IOException {
+        File jar = new File(dir, name);
+        ZipOutputStream zipOutputStream = new ZipOutputStream(new FileOutputStream(jar));
+        try {
+            zipOutputStream.putNextEntry(new ZipEntry(entry));
+            zipOutputStream.write(entry.getBytes("UTF-8"));
+            zipOutputStream.closeEntry();
+        } finally {
+            zipOutputStream.close();
+        }
+        return jar.toURI().toURL();
+    }
+
+    private static boolean isOpen(final Vfs.Dir dir) {
+        try {
+            Iterables.size(dir.getFiles());
+            return true;
+        } catch (IllegalStateException e) {
+            return false; //zip file closed
+        }
+    }
+}
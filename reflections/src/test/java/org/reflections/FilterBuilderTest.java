@@ -0,0 +1,111 @@
+package org.reflections;
+
+import org.junit.Test;
+import org.reflections.util.FilterBuilder;
+
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/** */
+public class FilterBuilderTest {
+
+    @Test
+    public void testApply() {
+        FilterBuilder filter = new FilterBuilder().include(FilterBuilder.prefix("org.reflections")).exclude(FilterBuilder.prefix("org.reflections.scanners"));
+
+        assertTrue(filter.apply("org.reflections.Reflections.class"));
+        assertFalse(filter.apply("org.reflections.scanners.Scanner.class"));
+        assertFalse(filter.apply("org.apache.Some.class"));
+
+        filter.include(".*Scanner\\.class");
+        assertTrue("compiled again once changed", filter.apply("org.reflections.scanners.Scanner.class"));
+
+        FilterBuilder object = new FilterBuilder().exclude(Object.class.getName());
+        assertFalse(object.apply("java.lang.Object"));
+        assertTrue(object.apply("java.lang.Objects"));
+        assertTrue(object.apply("java.lang.String"));
+    }
+
+    @Test
+    public void testApplyAsRegex() {
+        String[] filters = {
+                "+org\\.reflections\\..*, -org\\.reflections\\.scanners\\..*",
+                "-java\\..*, -javax\\..*, +javax\\.inject\\..*",
+                "+.*, -.*Test.*, +org\\.reflections\\.VfsTest.*",
+                "+org\\.reflections\\.Vfs.\\.class, -org.reflections.Vfs..*, +org\\.reflections\\.(vfs|util)\\..*",
+                "-java.lang.Object, +java\\..*, +org\\..*\\.class",
+                "+org.*, +org\\.reflections.*, -org\\.reflections\\.V.*, +org\\.refl?ections\\.Vfs.*",
+        };
+        String[] names = {"", "org", "org.", "org.reflections", "org.reflections.", "org.reflections.VfsTest.class",
+                "org.reflections.VfsX.class", "org.reflections.vfs.Vfs.class", "org.reflections.scanners.Scanner.class",
+                "org.reflections.ReflectionsTest.class", "java.lang.Object", "java.lang.Objects", "javax.inject.Inject.class",
+                "javax.annotation.Nullable.class", "org.reflections.Some\nName.class", "orgxreflections.class"};
+
+        for (String filter : filters) {
+            FilterBuilder filterBuilder = FilterBuilder.parse(filter);
+            for (String name : names) {
+                assertEquals(filter + " on " + name, applyAsRegex(filter, name), filterBuilder.apply(name));
+            }
+        }
+    }
+
+    @Test
+    public void testMayAcceptInclude() {
+        FilterBuilder filter = new FilterBuilder().include(FilterBuilder.prefix("org.reflections"));
+
+        assertTrue(filter.mayAccept("org."));
+        assertTrue(filter.mayAccept("org.reflections."));
+        assertTrue(filter.mayAccept("org.reflections.scanners."));
+        assertFalse(filter.mayAccept("com."));
+        assertFalse(filter.mayAccept("org.apache."));
+    }
+
+    @Test
+    public void testMayAcceptExclude() {
+        FilterBuilder filter = new FilterBuilder().include(FilterBuilder.prefix("org")).exclude(FilterBuilder.prefix("org.reflections.scanners"));
+
+        assertTrue(filter.mayAccept("org.reflections."));
+        assertFalse(filter.mayAccept("org.reflections.scanners."));
+        assertFalse(filter.mayAccept("com."));
+
+        FilterBuilder excludes = FilterBuilder.parse("-java\\..*, -javax\\..*");
+        assertFalse(excludes.mayAccept("java.lang."));
+        assertTrue(excludes.mayAccept("org."));
+    }
+
+    @Test
+    public void testMayAcceptIncludeAfterExclude() {
+        FilterBuilder filter = new FilterBuilder().include(FilterBuilder.prefix("org"))
+                .exclude(FilterBuilder.prefix("org.reflections")).include(FilterBuilder.prefix("org.reflections.vfs"));
+
+        assertTrue(filter.mayAccept("org.reflections."));
+        assertFalse(filter.mayAccept("org.reflections.scanners."));
+        assertTrue(filter.mayAccept("org.reflections.vfs."));
+    }
+
+    @Test
+    public void testMayAcceptPatterns() {
+        assertTrue(new FilterBuilder().include(".*\\.class").mayAccept("com."));
+        assertTrue(new FilterBuilder().include("org\\.(reflections|apache)\\..*").mayAccept("org.apache."));
+        assertTrue(new FilterBuilder().include("org|com").mayAccept("com"));
+        assertTrue(new FilterBuilder().include("orgs?\\.a.*").mayAccept("org."));
+        assertFalse(new FilterBuilder().include("org\\.refl[a-z]*\\..*").mayAccept("com."));
+        assertTrue(new FilterBuilder().add(new FilterBuilder().include(FilterBuilder.prefix("org"))).mayAccept("org."));
+        assertFalse(new FilterBuilder().include(FilterBuilder.prefix("com")).add(new FilterBuilder().include(FilterBuilder.prefix("org"))).mayAccept("net."));
+    }
+
+    /** applies the given include exclude filter, matching each regular expression in turn */
+    private static boolean applyAsRegex(final String includeExcludeString, final String name) {
+        String[] filters = includeExcludeString.split(",");
+        boolean accept = filters[0].trim().charAt(0) == '-';
+        for (String filter : filters) {
+            boolean include = filter.trim().charAt(0) == '+';
+            if (accept == include) continue;
+            accept = Pattern.matches(filter.trim().substring(1), name) == include;
+        }
+        return accept;
+    }
+}
@@ -0,0 +1,252 @@
+package org.reflections;
+
+import com.google.common.base.Predicate;
+import com.google.common.base.Predicates;
+import com.google.common.collect.Sets;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Files;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.reflections.ClasspathHelperTest.CountingScanner;
+import org.reflections.scanners.SubTypesScanner;
+import org.reflections.scanners.TypeAnnotationsScanner;
+import org.reflections.serializers.XmlSerializer;
+import org.reflections.util.ConfigurationBuilder;
+import org.reflections.util.FilterBuilder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.reflections.TestModel.*;
+
+/** */
+public class IncrementalScanTest {
+    private File dir;
+    private File classes;
+    private File jar;
+    private File stateFile;
+
+    @Before
+    public void createUrls() throws IOException {
+        dir = Files.createTempDir();
+        classes = new File(dir, "classes");
+        jar = new File(dir, "lib.jar");
+        stateFile = new File(dir, "state/reflections.state");
+
+        copyClass(C1.class);
+        copyClass(C2.class);
+        writeJar(C3.class);
+    }
+
+    @After
+    public void deleteUrls() throws IOException {
+        FileUtils.deleteDirectory(dir);
+    }
+
+    @Test
+    public void testIncrementalScan() throws IOException {
+        CountingScanner scanner = new CountingScanner();
+        Reflections reflections = scan(scanner, true, false);
+        assertEquals(3, scanner.count.get());
+        assertTrue(stateFile.isFile());
+        assertEquals(names(C1.class, C2.class, C3.class), reflections.getStore().getSubTypesOf(I2.class.getName()));
+
+        scanner = new CountingScanner();
+        reflections = scan(scanner, true, false);
+        assertEquals("unchanged files are not scanned", 0, scanner.count.get());
+        assertEquals(names(C1.class, C2.class, C3.class), reflections.getStore().getSubTypesOf(I2.class.getName()));
+
+        //remove a class, add a class, and add a class to the jar
+        assertTrue(new File(classes, path(C2.class)).delete());
+        copyClass(C4.class);
+        writeJar(C3.class, C5.class);
+
+        scanner = new CountingScanner();
+        reflections = scan(scanner, true, false);
+        assertEquals("only added files are scanned", 2, scanner.count.get());
+        assertEquals(names(C1.class, C3.class, C5.class), reflections.getStore().getSubTypesOf(I2.class.getName()));
+        assertEquals(scan(new CountingScanner(), false, false).getStore().getStoreMap(), reflections.getStore().getStoreMap());
+
+        scanner = new CountingScanner();
+        reflections = scan(scanner, true, true);
+        assertEquals(0, scanner.count.get());
+        assertEquals(scan(new CountingScanner(), false, true).getStore().getStoreMap(), reflections.getStore().getStoreMap());
+    }
+
+    @Test
+    public void testChangedScanners() {
+        scan(new CountingScanner(), true, false);
+
+        CountingScanner scanner = new CountingScanner();
+        Reflections reflections = new Reflections(new ConfigurationBuilder().setUrls(urls()).setScanners(scanner).useIncrementalScan(stateFile));
+        assertEquals("the state of other scanners is dropped", 3, scanner.count.get());
+        assertNull(reflections.getStore().get(SubTypesScanner.class));
+    }
+
+    @Test
+    public void testChangedResultFilter() {
+        scan(new CountingScanner(), true, false);
+
+        CountingScanner scanner = new CountingScanner();
+        Predicate<String> resultFilter = new FilterBuilder().include(FilterBuilder.literal(I2.class.getName()));
+        Reflections reflections = new Reflections(new ConfigurationBuilder().setUrls(urls())
+                .setScanners(new SubTypesScanner().filterResultsBy(resultFilter), scanner).useIncrementalScan(stateFile));
+        assertEquals("the state is dropped once a result filter changed", 3, scanner.count.get());
+        assertEquals(Sets.newHashSet(I2.class.getName()), reflections.getStore().get(SubTypesScanner.class).keySet());
+
+        scanner = new CountingScanner();
+        new Reflections(new ConfigurationBuilder().setUrls(urls())
+                .setScanners(new SubTypesScanner().filterResultsBy(resultFilter), scanner).useIncrementalScan(stateFile));
+        assertEquals(0, scanner.count.get());
+
+        scanner = new CountingScanner();
+        new Reflections(new ConfigurationBuilder().setUrls(urls())
+                .setScanners(new SubTypesScanner().filterResultsBy(Predicates.equalTo(I2.class.getName())), scanner).useIncrementalScan(stateFile));
+        assertEquals("a result filter not described is scanned in full", 3, scanner.count.get());
+    }
+
+    @Test
+    public void testScanCache() throws IOException {
+        File cacheDir = new File(dir, "cache");
+        CountingScanner scanner = new CountingScanner();
+        new Reflections(new ConfigurationBuilder().setUrls(urls()).setScanners(new SubTypesScanner(), scanner).useScanCache(cacheDir));
+        assertEquals(3, scanner.count.get());
+        assertEquals(1, cacheDir.list().length);
+
+        scanner = new CountingScanner();
+        Reflections reflections = new Reflections(new ConfigurationBuilder().setUrls(urls()).setScanners(new SubTypesScanner(), scanner).useScanCache(cacheDir));
+        assertEquals("directories are not cached", 2, scanner.count.get());
+        assertEquals(scan(new CountingScanner(), false, false).getStore().getStoreMap(), reflections.getStore().getStoreMap());
+
+        writeJar(C3.class, C5.class);
+        scanner = new CountingScanner();
+        reflections = new Reflections(new ConfigurationBuilder().setUrls(urls()).setScanners(new SubTypesScanner(), scanner).useScanCache(cacheDir));
+        assertEquals("a changed archive is not found in the cache", 4, scanner.count.get());
+        assertEquals(names(C1.class, C2.class, C3.class, C5.class), reflections.getStore().getSubTypesOf(I2.class.getName()));
+        assertEquals(2, cacheDir.list().length);
+
+        scanner = new CountingScanner();
+        new Reflections(new ConfigurationBuilder().setUrls(urls()).setScanners(scanner).useScanCache(cacheDir));
+        assertEquals("archives are cached by scanners", 4, scanner.count.get());
+
+        scanner = new CountingScanner();
+        new Reflections(new ConfigurationBuilder().setUrls(urls()).setScanners(new SubTypesScanner(), scanner).useScanCache(cacheDir).useIncrementalScan(stateFile));
+        assertEquals("the state is restored from the cache", 2, scanner.count.get());
+        scanner = new CountingScanner();
+        new Reflections(new ConfigurationBuilder().setUrls(urls()).setScanners(new SubTypesScanner(), scanner).useScanCache(cacheDir).useIncrementalScan(stateFile));
+        assertEquals(0, scanner.count.get());
+    }
+
+    @Test
+    public void testSavedIndexes() throws IOException {
+        Reflections saved = new Reflections(new ConfigurationBuilder().addUrls(jar.toURI().toURL()).setScanners(new SubTypesScanner(), new CountingScanner()));
+        writeJar(new XmlSerializer().toString(saved), C3.class);
+
+        CountingScanner scanner = new CountingScanner();
+        Reflections reflections = new Reflections(new ConfigurationBuilder().setUrls(urls()).setScanners(new SubTypesScanner(), scanner).useSavedIndexes());
+        assertEquals("the archive holding a saved index is not scanned", 2, scanner.count.get());
+        assertEquals(names(C1.class, C2.class, C3.class), reflections.getStore().getSubTypesOf(I2.class.getName()));
+
+        scanner = new CountingScanner();
+        reflections = new Reflections(new ConfigurationBuilder().setUrls(urls()).setScanners(new SubTypesScanner(), new TypeAnnotationsScanner(), scanner).useSavedIndexes());
+        assertEquals("a saved index not holding all scanners is not used", 3, scanner.count.get());
+        assertEquals(names(C1.class, C2.class, C3.class), reflections.getStore().getSubTypesOf(I2.class.getName()));
+    }
+
+    @Test
+    public void testSavedIndexesFiltered() throws IOException {
+        Reflections saved = new Reflections(new ConfigurationBuilder().addUrls(jar.toURI().toURL()).setScanners(new SubTypesScanner(), new CountingScanner()));
+        writeJar(new XmlSerializer().toString(saved), C3.class);
+
+        CountingScanner scanner = new CountingScanner();
+        Predicate<String> resultFilter = new FilterBuilder().include(FilterBuilder.literal(I2.class.getName()));
+        Reflections reflections = new Reflections(new ConfigurationBuilder().setUrls(urls())
+                .setScanners(new SubTypesScanner().filterResultsBy(resultFilter), scanner).useSavedIndexes());
+        assertEquals(2, scanner.count.get());
+        assertEquals("the saved index is filtered by the result filter", Sets.newHashSet(I2.class.getName()), reflections.getStore().get(SubTypesScanner.class).keySet());
+        assertEquals(new Reflections(new ConfigurationBuilder().setUrls(urls()).setScanners(new SubTypesScanner().filterResultsBy(resultFilter))).getStore().getStoreMap(),
+                new Reflections(new ConfigurationBuilder().setUrls(urls()).setScanners(new SubTypesScanner().filterResultsBy(resultFilter)).useSavedIndexes()).getStore().getStoreMap());
+
+        scanner = new CountingScanner();
+        reflections = new Reflections(new ConfigurationBuilder().setUrls(urls()).setScanners(new SubTypesScanner(), scanner)
+                .filterInputsBy(new FilterBuilder().exclude(FilterBuilder.literal(C3.class.getName()) + ".*")).useSavedIndexes());
+        assertEquals("an archive holding files the inputs filter does not accept is scanned", 2, scanner.count.get());
+        assertEquals(names(C1.class, C2.class), reflections.getStore().getSubTypesOf(I2.class.getName()));
+    }
+
+    //
+    private Reflections scan(final CountingScanner scanner, final boolean incremental, final boolean parallel) {
+        ConfigurationBuilder configuration = new ConfigurationBuilder().setUrls(urls()).setScanners(new SubTypesScanner(), scanner);
+        if (incremental) configuration.useIncrementalScan(stateFile);
+        if (parallel) configuration.useParallelExecutor(2);
+        return new Reflections(configuration);
+    }
+
+    private URL[] urls() {
+        try {
+            return new URL[] {classes.toURI().toURL(), jar.toURI().toURL()};
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void copyClass(final Class<?> aClass) throws IOException {
+        File file = new File(classes, path(aClass));
+        Files.createParentDirs(file);
+        Files.write(bytes(aClass), file);
+    }
+
+    private void writeJar(final Class<?>... classes) throws IOException {
+        writeJar(null, classes);
+    }
+
+    private void writeJar(final String savedIndex, final Class<?>... classes) throws IOException {
+        ZipOutputStream zipOutputStream = new ZipOutputStream(new FileOutputStream(jar));
+        try {
+            if (savedIndex != null) {
+                zipOutputStream.putNextEntry(new ZipEntry("META-INF/reflections/lib-reflections.xml"));
+                zipOutputStream.write(savedIndex.getBytes("UTF-8"));
+                zipOutputStream.closeEntry();
+            }
+            for (Class<?> aClass : classes) {
+                zipOutputStream.putNextEntry(new ZipEntry(path(aClass)));
+                zipOutputStream.write(bytes(aClass));
+                zipOutputStream.closeEntry();
+            }
+        } finally {
+            zipOutputStream.close();
+        }
+    }
+
+    private static String path(final Class<?> aClass) {
+        return aClass.getName().replace('.', '/') + ".class";
+    }
+
+    private static byte[] bytes(final Class<?> aClass) throws IOException {
+        InputStream inputStream = aClass.getClassLoader().getResourceAsStream(path(aClass));
+        try {
+            return ByteStreams.toByteArray(inputStream);
+        } finally {
+            inputStream.close();
+        }
+    }
+
+    private static Set<String> names(final Class<?>... classes) {
+        Set<String> names = Sets.newHashSet();
+        for (Class<?> aClass : classes) {
+            names.add(aClass.getName());
+        }
+        return names;
+    }
+}
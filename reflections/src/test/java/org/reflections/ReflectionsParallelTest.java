@@ -1,14 +1,28 @@
 package org.reflections;
 
 import com.google.common.base.Predicate;
+import com.google.common.collect.Sets;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.reflections.scanners.*;
 import org.reflections.util.ConfigurationBuilder;
 import org.reflections.util.ClasspathHelper;
 import org.reflections.util.FilterBuilder;
+import org.reflections.vfs.Vfs;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
 
 import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 /** */
 public class ReflectionsParallelTest extends ReflectionsTest {
@@ -33,4 +47,80 @@ public class ReflectionsParallelTest extends ReflectionsTest {
     public void testAll() {
         super.testAll();
     }
+
+    @Test
+    public void testCachedThreadPool() {
+        ExecutorService executorService = Executors.newCachedThreadPool();
+        try {
+            assertEquals(Runtime.getRuntime().availableProcessors(), ScanScheduler.parallelism(executorService));
+
+            Predicate<String> filter = new FilterBuilder().include("org.reflections.TestModel\\$.*");
+            Reflections cached = new Reflections(new ConfigurationBuilder()
+                    .setUrls(asList(ClasspathHelper.forClass(TestModel.class)))
+                    .filterInputsBy(filter)
+                    .setScanners(
+                            new SubTypesScanner().filterResultsBy(filter),
+                            new TypeAnnotationsScanner().filterResultsBy(filter),
+                            new FieldAnnotationsScanner().filterResultsBy(filter),
+                            new MethodAnnotationsScanner().filterResultsBy(filter),
+                            new ConvertersScanner().filterResultsBy(filter))
+                    .setExecutorService(executorService));
+
+            assertEquals(reflections.getStore().getStoreMap(), cached.getStore().getStoreMap());
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    @Test
+    public void testSingleArchive() throws IOException {
+        File jar = File.createTempFile("reflections-parallel", ".jar");
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            JarOutputStream out = new JarOutputStream(new FileOutputStream(jar));
+            try {
+                for (int i = 0; i < 8 * 256; i++) {
+                    out.putNextEntry(new ZipEntry("files/file" + i + ".txt"));
+                    out.write(("file" + i).getBytes("UTF-8"));
+                    out.closeEntry();
+                }
+            } finally {
+                out.close();
+            }
+
+            ThreadsScanner scanner = new ThreadsScanner();
+            Reflections reflections = new Reflections(new ConfigurationBuilder()
+                    .setUrls(asList(jar.toURI().toURL()))
+                    .setScanners(scanner)
+                    .setExecutorService(executorService));
+
+            assertEquals(8 * 256, reflections.getStore().get(ThreadsScanner.class).size());
+            assertTrue("the batches of a single archive are scanned by more than one thread", scanner.threads.size() > 1);
+        } finally {
+            executorService.shutdown();
+            jar.delete();
+        }
+    }
+
+    public static class ThreadsScanner extends AbstractScanner {
+        final Set<Thread> threads = Sets.newSetFromMap(new ConcurrentHashMap<Thread, Boolean>());
+
+        public boolean acceptsInput(final String file) {
+            return file.endsWith(".txt");
+        }
+
+        public void scan(final Vfs.File file) {
+            threads.add(Thread.currentThread());
+            getStore().put(file.getName(), file.getRelativePath());
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        public void scan(final Object cls) {
+            throw new UnsupportedOperationException();
+        }
+    }
 }
@@ -0,0 +1,36 @@
+package org.reflections;
+
+import com.google.common.base.Predicate;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.reflections.scanners.*;
+import org.reflections.util.ConfigurationBuilder;
+import org.reflections.util.ClasspathHelper;
+import org.reflections.util.FilterBuilder;
+
+import static java.util.Arrays.asList;
+
+/** */
+public class ReflectionsPipelinedTest extends ReflectionsTest {
+
+    @BeforeClass
+    public static void init() {
+        Predicate<String> filter = new FilterBuilder().include("org.reflections.TestModel\\$.*");
+
+        reflections = new Reflections(new ConfigurationBuilder()
+                .setUrls(asList(ClasspathHelper.forClass(TestModel.class)))
+                .filterInputsBy(filter)
+                .setScanners(
+                        new SubTypesScanner().filterResultsBy(filter),
+                        new TypeAnnotationsScanner().filterResultsBy(filter),
+                        new FieldAnnotationsScanner().filterResultsBy(filter),
+                        new MethodAnnotationsScanner().filterResultsBy(filter),
+                        new ConvertersScanner().filterResultsBy(filter))
+                .usePipelinedScan());
+    }
+
+    @Test
+    public void testAll() {
+        super.testAll();
+    }
+}
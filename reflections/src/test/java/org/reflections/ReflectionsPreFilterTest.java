@@ -0,0 +1,168 @@
+package org.reflections;
+
+import com.google.common.base.Predicate;
+import com.google.common.collect.Multimap;
+import com.google.common.collect.Sets;
+import com.google.common.io.ByteStreams;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.reflections.adapters.ConstantPoolFilter;
+import org.reflections.adapters.MetadataAdapter;
+import org.reflections.scanners.*;
+import org.reflections.util.ClasspathHelper;
+import org.reflections.util.ConfigurationBuilder;
+import org.reflections.util.FilterBuilder;
+import org.reflections.vfs.Vfs;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.reflections.TestModel.*;
+
+/** */
+public class ReflectionsPreFilterTest {
+    static Reflections reflections;
+
+    @BeforeClass
+    public static void init() {
+        Predicate<String> filter = new FilterBuilder().include("org.reflections.TestModel\\$.*");
+
+        reflections = new Reflections(new ConfigurationBuilder()
+                .setUrls(asList(ClasspathHelper.forClass(TestModel.class)))
+                .filterInputsBy(filter)
+                .setScanners(
+                        new SubTypesScanner().filterResultsBy(filter),
+                        new TypeAnnotationsScanner().filterByAnnotations(AC1.class),
+                        new FieldAnnotationsScanner().filterByAnnotations(AF1.class),
+                        new MethodAnnotationsScanner().filterByAnnotations(AM1.class.getName())));
+    }
+
+    @Test
+    public void testConstantPoolFilter() throws IOException {
+        ConstantPoolFilter filter = ConstantPoolFilter.forAnnotations(asList(AC1.class.getName()));
+
+        assertTrue("annotated class", accepts(filter, C1.class));
+        assertTrue("the annotation itself", accepts(filter, AC1.class));
+        assertFalse("not annotated class", accepts(filter, C4.class));
+    }
+
+    @Test
+    public void testTypesAnnotatedWith() {
+        assertEquals(Sets.newHashSet(C1.class, C2.class, C3.class, C5.class), reflections.getTypesAnnotatedWith(AC1.class));
+        assertTrue(reflections.getTypesAnnotatedWith(AC2.class).isEmpty());
+    }
+
+    @Test
+    public void testFieldsAnnotatedWith() throws NoSuchFieldException {
+        assertEquals(Sets.newHashSet(C4.class.getDeclaredField("f1"), C4.class.getDeclaredField("f2")),
+                reflections.getFieldsAnnotatedWith(AF1.class));
+    }
+
+    @Test
+    public void testMethodsAnnotatedWith() throws NoSuchMethodException {
+        assertEquals(Sets.newHashSet(
+                C4.class.getDeclaredMethod("m1"),
+                C4.class.getDeclaredMethod("m1", int.class, String[].class),
+                C4.class.getDeclaredMethod("m1", int[][].class, String[][].class),
+                C4.class.getDeclaredMethod("m3")),
+                reflections.getMethodsAnnotatedWith(AM1.class));
+    }
+
+    @Test
+    public void testSubTypesOf() {
+        assertEquals(Sets.newHashSet(C1.class, C2.class, C3.class, C5.class), reflections.getSubTypesOf(I2.class));
+    }
+
+    @Test
+    public void testPlainScanner() {
+        Predicate<String> filter = new FilterBuilder().include("org.reflections.TestModel\\$.*");
+        Reflections reflections = new Reflections(new ConfigurationBuilder()
+                .setUrls(asList(ClasspathHelper.forClass(TestModel.class)))
+                .filterInputsBy(filter)
+                .setScanners(new TypeAnnotationsScanner().filterByAnnotations(AC1.class), new PlainScanner()));
+
+        assertEquals(Sets.newHashSet(C1.class.getName()), reflections.getStore().get(TypeAnnotationsScanner.class).get(AC1.class.getName()));
+        assertTrue("files rejected by the pre-filter of other scanners are scanned",
+                reflections.getStore().get(PlainScanner.class).containsKey(C4.class.getName()));
+    }
+
+    @Test
+    public void testScanFileOverride() {
+        Reflections reflections = new Reflections(new ConfigurationBuilder()
+                .setUrls(asList(ClasspathHelper.forClass(TestModel.class)))
+                .filterInputsBy(new FilterBuilder().include(".*\\.xml"))
+                .setScanners(new XmlFilesScanner()));
+
+        assertFalse(new XmlFilesScanner().sharesClassObject());
+        assertTrue(reflections.getStore().get(XmlFilesScanner.class).containsKey("resource1-reflections.xml"));
+    }
+
+    /** a scanner overriding {@link AbstractScanner#scan(Vfs.File)}, which is called rather than given the shared class object */
+    public static class XmlFilesScanner extends AbstractScanner {
+        public boolean acceptsInput(final String file) {
+            return file.endsWith(".xml");
+        }
+
+        public void scan(final Vfs.File file) {
+            getStore().put(file.getName(), file.getRelativePath());
+        }
+
+        public void scan(final Object cls) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /** a scanner implementing {@link Scanner} directly, rather than extending {@link AbstractScanner} */
+    public static class PlainScanner implements Scanner {
+        private Configuration configuration;
+        private Multimap<String, String> store;
+
+        public void setConfiguration(final Configuration configuration) {
+            this.configuration = configuration;
+        }
+
+        public Multimap<String, String> getStore() {
+            return store;
+        }
+
+        public void setStore(final Multimap<String, String> store) {
+            this.store = store;
+        }
+
+        public Scanner filterResultsBy(final Predicate<String> filter) {
+            return this;
+        }
+
+        public boolean acceptsInput(final String file) {
+            return file.endsWith(".class");
+        }
+
+        public void scan(final Vfs.File file) {
+            try {
+                MetadataAdapter adapter = configuration.getMetadataAdapter();
+                //noinspection unchecked
+                store.put(adapter.getClassName(adapter.getOfCreateClassObject(file)), file.getRelativePath());
+            } catch (Exception e) {
+                throw new ReflectionsException("could not scan " + file.getName(), e);
+            }
+        }
+
+        public boolean acceptResult(final String fqn) {
+            return true;
+        }
+    }
+
+    private static boolean accepts(final ConstantPoolFilter filter, final Class<?> aClass) throws IOException {
+        InputStream inputStream = aClass.getResourceAsStream("/" + aClass.getName().replace('.', '/') + ".class");
+        try {
+            byte[] bytes = ByteStreams.toByteArray(inputStream);
+            return filter.accepts(bytes, bytes.length);
+        } finally {
+            inputStream.close();
+        }
+    }
+}
@@ -16,6 +16,7 @@ import org.reflections.util.ConfigurationBuilder;
 import org.reflections.util.FilterBuilder;
 import org.reflections.vfs.Vfs;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.lang.annotation.Annotation;
@@ -25,6 +26,8 @@ import java.util.Set;
 import java.util.regex.Pattern;
 
 import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
 import static org.reflections.TestModel.*;
@@ -199,19 +202,29 @@ public class ReflectionsTest {
         final JsonSerializer serializer = new JsonSerializer();
         testModelReflections.save(path, serializer);
 
-        reflections = new Reflections(new ConfigurationBuilder()).collect("META-INF/reflections",
-                new FilterBuilder().include(".*-reflections.json"),
+        //only the json saved above, and the xml resources of the test, not files saved by other tests
+        reflections = Reflections.collect("META-INF/reflections",
+                new FilterBuilder().include("testModel-reflections\\.json"),
                 serializer);
 
-        reflections.collect("META-INF/reflections",
-                new FilterBuilder().include(".*-reflections.xml").exclude("testModel-reflections.xml"),
-                new XmlSerializer());
+        reflections.merge(Reflections.collect("META-INF/reflections",
+                new FilterBuilder().include(".*-reflections\\.xml").exclude("testModel-reflections\\.xml"),
+                new XmlSerializer()));
 
         //todo what about duplicates?
 
         testAll();
     }
 
+    @Test
+    public void jsonSerializer() {
+        JsonSerializer serializer = new JsonSerializer();
+        Reflections read = serializer.read(new ByteArrayInputStream(serializer.toString(reflections).getBytes()));
+
+        assertFalse(read.getStore().getStoreMap().isEmpty());
+        assertEquals(reflections.getStore().getStoreMap(), read.getStore().getStoreMap());
+    }
+
     public static String getUserDir() {
         File file = new File(System.getProperty("user.dir"));
         //a hack to fix user.dir issue(?) in surfire
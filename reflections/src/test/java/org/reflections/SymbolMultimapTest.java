@@ -0,0 +1,99 @@
+package org.reflections;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Multimap;
+import com.google.common.collect.Sets;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/** */
+public class SymbolMultimapTest {
+
+    @Test
+    public void testAgainstHashMultimap() {
+        SymbolTable symbols = new SymbolTable();
+        SymbolMultimap multimap = new SymbolMultimap(symbols);
+        SymbolMultimap other = new SymbolMultimap(symbols);
+        Multimap<String, String> expected = HashMultimap.create();
+
+        Random random = new Random(0);
+        for (int i = 0; i < 20000; i++) {
+            String key = "k" + random.nextInt(500);
+            String value = "v" + random.nextInt(random.nextBoolean() ? 3 : 2000);
+            if (random.nextInt(10) == 0) {
+                assertEquals(expected.remove(key, value), multimap.remove(key, value));
+            } else {
+                assertEquals(expected.put(key, value), multimap.put(key, value));
+            }
+            other.put(value, key); //sharing the symbols, keys of one are values of the other
+        }
+
+        assertEqualMultimaps(expected, multimap);
+        multimap.freeze();
+        assertTrue(multimap.isFrozen());
+        assertEqualMultimaps(expected, multimap);
+        assertFalse(multimap.containsEntry("k1", "unknown"));
+
+        assertTrue(multimap.containsEntry("k1", multimap.get("k1").iterator().next()));
+        assertFalse(multimap.containsKey("v1"));
+        assertTrue(other.containsKey("v1"));
+        assertFalse(multimap.containsKey("unknown"));
+        assertTrue(multimap.get("unknown").isEmpty());
+
+        assertEquals(expected.removeAll("k1"), multimap.removeAll("k1"));
+        assertFalse("written multimap is thawed", multimap.isFrozen());
+        assertFalse(multimap.containsKey("k1"));
+        multimap.get("k1").add("v1");
+        expected.put("k1", "v1");
+        assertEqualMultimaps(expected, multimap);
+    }
+
+    @Test
+    public void testRemoveKeys() {
+        SymbolTable symbols = new SymbolTable();
+        for (int i = 0; i < 10000; i++) {
+            symbols.intern("other" + i); //names of other indexes, the keys of this one are a few of all names
+        }
+        SymbolMultimap multimap = new SymbolMultimap(symbols);
+        Multimap<String, String> expected = HashMultimap.create();
+        for (int i = 0; i < 1000; i++) {
+            multimap.put("k" + i, "v" + i % 7);
+            expected.put("k" + i, "v" + i % 7);
+        }
+        multimap.freeze();
+        assertEqualMultimaps(expected, multimap);
+
+        List<String> keys = Lists.newArrayList(expected.keySet());
+        Collections.shuffle(keys, new Random(0));
+        for (String key : keys) {
+            assertEquals(expected.removeAll(key), multimap.removeAll(key));
+            for (String other : expected.keySet()) {
+                assertTrue("keys probed past a removed key are still found", multimap.containsKey(other));
+            }
+        }
+        assertTrue(multimap.isEmpty());
+        assertTrue(multimap.keySet().isEmpty());
+    }
+
+    private static void assertEqualMultimaps(final Multimap<String, String> expected, final SymbolMultimap multimap) {
+        assertEquals(expected, multimap);
+        assertEquals(multimap, expected);
+        assertEquals(expected.hashCode(), multimap.hashCode());
+        assertEquals(expected.size(), multimap.size());
+        assertEquals(expected.keySet(), multimap.keySet());
+        assertEquals(expected.keys(), multimap.keys());
+        assertEquals(Sets.newHashSet(expected.entries()), multimap.entries());
+        assertEquals(expected.values().size(), multimap.values().size());
+        for (String key : expected.keySet()) {
+            assertEquals(expected.get(key), multimap.get(key));
+        }
+    }
+}
@@ -1,25 +1,51 @@
 package org.reflections;
 
+import com.google.common.base.Predicate;
 import com.google.common.base.Predicates;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.google.common.io.ByteStreams;
 import com.google.common.io.Files;
 import org.apache.commons.io.FileUtils;
 import org.junit.Assert;
 import org.junit.Ignore;
 import org.junit.Test;
+import org.reflections.scanners.SubTypesScanner;
 import org.reflections.util.ClasspathHelper;
+import org.reflections.util.ConfigurationBuilder;
+import org.reflections.util.FilterBuilder;
+import org.reflections.vfs.BufferedFile;
+import org.reflections.vfs.MappedZipDir;
+import org.reflections.vfs.MemoryDir;
+import org.reflections.vfs.ReadBuffer;
+import org.reflections.vfs.SystemDir;
+import org.reflections.vfs.UrlTypeVFS;
 import org.reflections.vfs.Vfs;
 import org.reflections.vfs.ZipDir;
 
+import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.net.URLClassLoader;
+import java.net.URLConnection;
 import java.net.URLEncoder;
+import java.net.URLStreamHandler;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 /** */
 public class VfsTest {
@@ -61,6 +87,117 @@ public class VfsTest {
         testVfsDir(getSomeDirectory());
     }
 
+    @Test
+    public void systemDirSubtrees() {
+        SystemDir dir = new SystemDir(ClasspathHelper.forClass(VfsTest.class));
+        Set<String> expected = Sets.newHashSet();
+        for (Vfs.File file : dir.getFiles()) {
+            expected.add(file.getRelativePath());
+        }
+
+        //every subdirectory split off, and enumerated by itself
+        final List<String> subtrees = Lists.newArrayList("");
+        Set<String> paths = Sets.newHashSet();
+        for (int i = 0; i < subtrees.size(); i++) {
+            Predicate<String> split = new Predicate<String>() {
+                public boolean apply(String subdirectory) {
+                    return subtrees.add(subdirectory);
+                }
+            };
+            for (Vfs.File file : dir.getFiles(subtrees.get(i), Predicates.<String>alwaysTrue(), split)) {
+                Assert.assertTrue(new File(file.getFullPath()).getPath().endsWith(new File(file.getRelativePath()).getPath()));
+                Assert.assertTrue(paths.add(file.getRelativePath()));
+            }
+        }
+
+        Assert.assertTrue(subtrees.size() > 1);
+        Assert.assertTrue(expected.contains(VfsTest.class.getName().replace('.', '/') + ".class"));
+        Assert.assertEquals(expected, paths);
+    }
+
+    @Test
+    public void filteredDirs() {
+        FilterBuilder filter = new FilterBuilder().include(FilterBuilder.prefix("com.google.common.collect"));
+        URL jar = ClasspathHelper.forClass(Predicates.class);
+        URL dir = ClasspathHelper.forClass(VfsTest.class);
+
+        for (Vfs.Dir zipDir : Arrays.<Vfs.Dir>asList(new ZipDir(jar), new MappedZipDir(jar))) {
+            try {
+                Set<String> expected = Sets.newHashSet();
+                for (Vfs.File file : zipDir.getFiles()) {
+                    if (filter.apply(file.getRelativePath().replace('/', '.'))) expected.add(file.getRelativePath());
+                }
+                Assert.assertFalse(expected.isEmpty());
+                Assert.assertEquals(expected, relativePaths(Vfs.getFiles(zipDir, filter)));
+            } finally {
+                zipDir.close();
+            }
+        }
+
+        //the directories of other packages are not even listed
+        SystemDir systemDir = new SystemDir(dir);
+        final List<String> listed = Lists.newArrayList();
+        Predicate<String> split = new Predicate<String>() {
+            public boolean apply(String subdirectory) {
+                listed.add(subdirectory);
+                return false;
+            }
+        };
+        FilterBuilder vfsFilter = new FilterBuilder().include(FilterBuilder.prefix("org.reflections.VfsTest"));
+        Set<String> expected = Sets.newHashSet();
+        for (Vfs.File file : systemDir.getFiles()) {
+            if (vfsFilter.apply(file.getRelativePath().replace('/', '.'))) expected.add(file.getRelativePath());
+        }
+        Assert.assertTrue(expected.contains("org/reflections/VfsTest.class"));
+        Assert.assertEquals(expected, relativePaths(systemDir.getFiles("", vfsFilter, split)));
+        Assert.assertEquals(Lists.newArrayList("org", "org/reflections"), listed);
+    }
+
+    @Test
+    public void memoryDir() throws Exception {
+        MemoryDir dir = new MemoryDir("VfsTest.memoryDir");
+        for (Class<?> aClass : Arrays.asList(TestModel.I1.class, TestModel.I2.class, TestModel.C1.class, TestModel.C2.class)) {
+            String relativePath = aClass.getName().replace('.', '/') + ".class";
+            byte[] bytes = ByteStreams.toByteArray(aClass.getClassLoader().getResourceAsStream(relativePath));
+            if (aClass == TestModel.C2.class) {
+                dir.add(relativePath, (ByteBuffer) ByteBuffer.allocateDirect(bytes.length).put(bytes).flip());
+            } else {
+                dir.add(relativePath, bytes);
+            }
+        }
+
+        URL url = dir.getUrl();
+        Assert.assertSame(dir, Vfs.fromURL(url));
+        testVfsDir(url);
+
+        Reflections reflections = new Reflections(new ConfigurationBuilder().setUrls(url).setScanners(new SubTypesScanner()));
+        Assert.assertEquals(Sets.newHashSet(TestModel.I2.class.getName(), TestModel.C1.class.getName(), TestModel.C2.class.getName()),
+                reflections.getStore().getSubTypesOf(TestModel.I1.class.getName()));
+
+        //the url can be opened by a class loader
+        URLClassLoader classLoader = new URLClassLoader(new URL[]{url}, null);
+        Assert.assertNotNull(classLoader.getResource(TestModel.C1.class.getName().replace('.', '/') + ".class"));
+        Assert.assertArrayEquals(toByteArray(Iterables.getFirst(dir.getFiles(), null)),
+                ByteStreams.toByteArray(new URL(url, Iterables.getFirst(dir.getFiles(), null).getRelativePath()).openStream()));
+        dir.dispose();
+    }
+
+    @Test
+    public void memoryDirDispose() {
+        MemoryDir dir = new MemoryDir("VfsTest.memoryDirDispose");
+        try {
+            new MemoryDir("VfsTest.memoryDirDispose");
+            Assert.fail("the name of a dir found by url is not used again");
+        } catch (ReflectionsException e) {
+            //expected
+        }
+
+        dir.dispose();
+        MemoryDir created = new MemoryDir("VfsTest.memoryDirDispose");
+        Assert.assertSame(created, Vfs.fromURL(created.getUrl()));
+        created.dispose();
+    }
+
     @Test
     public void vfsFromJarFileUrl() throws MalformedURLException {
         testVfsDir(new URL("jar:file:" + getSomeJar().getPath() + "!/"));
@@ -141,11 +278,159 @@ public class VfsTest {
     }
 
     @Test
-    public void vfsFromJarWithInnerJars() {
-        //todo?
+    public void readBuffer() throws IOException {
+        ReadBuffer buffer = new ReadBuffer();
+        for (URL url : Arrays.asList(ClasspathHelper.forClass(Predicates.class), ClasspathHelper.forClass(VfsTest.class))) {
+            Vfs.Dir dir = Vfs.fromURL(url);
+            try {
+                for (Vfs.File file : Iterables.limit(dir.getFiles(), 100)) {
+                    BufferedFile bufferedFile = buffer.read(file);
+                    InputStream inputStream = file.openInputStream();
+                    try {
+                        Assert.assertArrayEquals(ByteStreams.toByteArray(inputStream), bytes(bufferedFile));
+                    } finally {
+                        inputStream.close();
+                    }
+                }
+            } finally {
+                dir.close();
+            }
+        }
+    }
+
+    @Test
+    public void mappedZipDir() throws IOException {
+        URL jar = ClasspathHelper.forClass(Predicates.class);
+        Assert.assertTrue(MappedZipDir.URL_TYPE.matches(jar));
+
+        Vfs.Dir zipDir = new ZipDir(jar);
+        Vfs.Dir mappedZipDir = MappedZipDir.URL_TYPE.createDir(jar);
+        ReadBuffer buffer = new ReadBuffer();
+        try {
+            Iterator<Vfs.File> mappedFiles = mappedZipDir.getFiles().iterator();
+            for (Vfs.File file : zipDir.getFiles()) {
+                Vfs.File mappedFile = mappedFiles.next();
+                Assert.assertEquals(file.getRelativePath(), mappedFile.getRelativePath());
+                Assert.assertEquals(file.getName(), mappedFile.getName());
+
+                byte[] bytes = toByteArray(file);
+                Assert.assertArrayEquals(bytes, toByteArray(mappedFile));
+
+                BufferedFile bufferedFile = buffer.read(mappedFile);
+                Assert.assertArrayEquals(bytes, bytes(bufferedFile));
+            }
+            Assert.assertFalse(mappedFiles.hasNext());
+        } finally {
+            zipDir.close();
+            mappedZipDir.close();
+        }
+    }
+
+    @Test
+    public void vfsFromJarWithInnerJars() throws Exception {
+        java.io.File dir = Files.createTempDir();
+        try {
+            byte[] inner = zip(false, classEntry(TestModel.C3.class, ""));
+            java.io.File ear = new java.io.File(dir, "app.ear");
+            Files.write(zip(false,
+                    "lib/util.jar", zip(false, classEntry(TestModel.C1.class, "")),
+                    "web.war", zip(false, classEntry(TestModel.C2.class, "WEB-INF/classes/"), "WEB-INF/lib/inner.jar", inner)), ear);
+            java.io.File bootJar = new java.io.File(dir, "app.jar");
+            Files.write(zip(true, classEntry(TestModel.C5.class, "BOOT-INF/classes/"), "BOOT-INF/lib/inner.jar", inner), bootJar);
+
+            String earUrl = "jar:" + ear.toURI().toURL() + "!/";
+            String bootJarUrl = "jar:" + bootJar.toURI().toURL() + "!/";
+            Set<URL> earUrls = ClasspathHelper.forArchive(ear.toURI().toURL());
+            Set<URL> bootJarUrls = ClasspathHelper.forArchive(bootJar.toURI().toURL());
+            Assert.assertEquals(Sets.newHashSet(new URL(earUrl + "lib/util.jar!/"),
+                    new URL(earUrl + "web.war!/WEB-INF/classes!/"), new URL(earUrl + "web.war!/WEB-INF/lib/inner.jar!/")), earUrls);
+            Assert.assertEquals(Sets.newHashSet(new URL(bootJarUrl + "BOOT-INF/classes!/"), new URL(bootJarUrl + "BOOT-INF/lib/inner.jar!/")), bootJarUrls);
+
+            //nested archives are read in place, deflated or stored, with paths relative to their root
+            Vfs.Dir warClasses = Vfs.fromURL(new URL(earUrl + "web.war!/WEB-INF/classes!/"));
+            Vfs.Dir bootJarLib = Vfs.fromURL(new URL(bootJarUrl + "BOOT-INF/lib/inner.jar!/"));
+            try {
+                Vfs.File file = Iterables.getOnlyElement(warClasses.getFiles());
+                Assert.assertEquals(classEntry(TestModel.C2.class, "")[0], file.getRelativePath());
+                Assert.assertArrayEquals((byte[]) classEntry(TestModel.C2.class, "")[1], toByteArray(file));
+
+                file = Iterables.getOnlyElement(bootJarLib.getFiles());
+                Assert.assertEquals(classEntry(TestModel.C3.class, "")[0], file.getRelativePath());
+                Assert.assertArrayEquals((byte[]) classEntry(TestModel.C3.class, "")[1], toByteArray(file));
+            } finally {
+                warClasses.close();
+                bootJarLib.close();
+            }
+
+            //jboss vfszip paths
+            URLStreamHandler handler = new URLStreamHandler() {
+                protected URLConnection openConnection(URL u) { throw new UnsupportedOperationException(); }
+            };
+            Vfs.Dir vfsDir = new UrlTypeVFS().createDir(new URL("vfszip", null, -1, ear.getPath() + "/web.war/WEB-INF/lib/inner.jar/", handler));
+            try {
+                Assert.assertEquals(classEntry(TestModel.C3.class, "")[0], Iterables.getOnlyElement(vfsDir.getFiles()).getRelativePath());
+            } finally {
+                vfsDir.close();
+            }
+
+            Reflections reflections = new Reflections(new ConfigurationBuilder()
+                    .setUrls(Sets.union(earUrls, bootJarUrls)).setScanners(new SubTypesScanner()));
+            Assert.assertEquals(Sets.newHashSet(TestModel.C1.class, TestModel.C2.class, TestModel.C3.class, TestModel.C5.class),
+                    reflections.getSubTypesOf(TestModel.I2.class));
+        } finally {
+            FileUtils.deleteDirectory(dir);
+        }
     }
 
     //
+    /** the path and the bytes of the class file of the given class, within the given directory */
+    private static Object[] classEntry(Class<?> aClass, String directory) throws IOException {
+        String path = aClass.getName().replace('.', '/') + ".class";
+        InputStream inputStream = aClass.getClassLoader().getResourceAsStream(path);
+        try {
+            return new Object[] {directory + path, ByteStreams.toByteArray(inputStream)};
+        } finally {
+            inputStream.close();
+        }
+    }
+
+    /** a zip archive of the given paths and bytes, or path and bytes pairs, nested archives stored and other entries deflated, or all deflated */
+    private static byte[] zip(boolean storeArchives, Object... entries) throws IOException {
+        List<Object> flat = Lists.newArrayList();
+        for (Object entry : entries) {
+            if (entry instanceof Object[]) flat.addAll(Arrays.asList((Object[]) entry)); else flat.add(entry);
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ZipOutputStream zipOutputStream = new ZipOutputStream(bytes);
+        for (int i = 0; i < flat.size(); i += 2) {
+            String name = (String) flat.get(i);
+            byte[] content = (byte[]) flat.get(i + 1);
+            ZipEntry zipEntry = new ZipEntry(name);
+            if (storeArchives && name.endsWith(".jar")) {
+                CRC32 crc = new CRC32();
+                crc.update(content);
+                zipEntry.setMethod(ZipEntry.STORED);
+                zipEntry.setSize(content.length);
+                zipEntry.setCrc(crc.getValue());
+            }
+            zipOutputStream.putNextEntry(zipEntry);
+            zipOutputStream.write(content);
+            zipOutputStream.closeEntry();
+        }
+        zipOutputStream.close();
+        return bytes.toByteArray();
+    }
+
+    private static byte[] toByteArray(Vfs.File file) throws IOException {
+        InputStream inputStream = file.openInputStream();
+        try {
+            return ByteStreams.toByteArray(inputStream);
+        } finally {
+            inputStream.close();
+        }
+    }
+
     private URL getSomeJar() {
         Collection<URL> urls = ClasspathHelper.forClassLoader();
         for (URL url : urls) {
@@ -158,6 +443,21 @@ public class VfsTest {
         return null;
     }
 
+    /** the bytes read into the given file, as an array of their own */
+    private static byte[] bytes(final BufferedFile file) {
+        byte[] bytes = new byte[file.getLength()];
+        System.arraycopy(file.getBytes(), 0, bytes, 0, bytes.length);
+        return bytes;
+    }
+
+    private static Set<String> relativePaths(final Iterable<Vfs.File> files) {
+        Set<String> paths = Sets.newHashSet();
+        for (Vfs.File file : files) {
+            Assert.assertTrue(paths.add(file.getRelativePath()));
+        }
+        return paths;
+    }
+
     private URL getSomeDirectory() {
         try {
             return new File(ReflectionsTest.getUserDir()).toURI().toURL();